@@ -8,6 +8,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.loadmore.EndlessRecyclerView;
+import com.loadmore.PageLoader;
+import com.loadmore.PageSource;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +23,18 @@ public class MainActivity extends AppCompatActivity {
     private int offsetLoad = 0;
     private int itemPerPage = 23;
     private int currentPage = 1;
+    private PageLoader<Integer, String> pageLoader = new PageLoader<>(new PageSource<Integer, String>() {
+        @Override
+        public List<String> loadPage(Integer page) throws Exception {
+            Thread.sleep(3000);
+            List<String> data = new ArrayList<>();
+            for (int i = 0; i < itemPerPage; i++) {
+                data.add(sampleData.get(page * i));
+            }
+            return data;
+        }
+    });
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -31,6 +45,7 @@ public class MainActivity extends AppCompatActivity {
         mainAdapter.setItems(dataGet);
         endlessRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         endlessRecyclerView.setAdapter(mainAdapter);
+        endlessRecyclerView.setPageLoader(pageLoader);
 
         endlessRecyclerView.setOnLoadMoreListener(new EndlessRecyclerView.OnLoadMoreListener() {
             @Override
@@ -54,16 +69,17 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void getData(final int page) {
-        new Handler().postDelayed(new Runnable() {
+        pageLoader.load(page, new PageLoader.Callback<Integer, String>() {
             @Override
-            public void run() {
-                List<String> data = new ArrayList<>();
-                for (int i = 0; i < itemPerPage; i++) {
-                    data.add(sampleData.get(page * i));
-                }
-                initLoadMoreData(data);
+            public void onPageLoaded(Integer key, List<String> items) {
+                initLoadMoreData(items);
             }
-        }, 3000);
+
+            @Override
+            public void onPageError(Integer key, Throwable error) {
+                updateLoadingRecyclerView(EndlessRecyclerView.ScrollType.ERROR);
+            }
+        });
     }
 
     private void initLoadMoreData(List<String> results) {
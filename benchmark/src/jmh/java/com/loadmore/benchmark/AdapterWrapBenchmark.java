@@ -0,0 +1,235 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.benchmark;
+
+import com.loadmore.PageIndex;
+import com.loadmore.PositionMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per position work added by EndlessRecyclerAdapter around the wrapped adapter: the slot and
+ * placeholder lookup of {@link PositionMath#slotOf(int, boolean, boolean, int, PositionMath.Placeholders)}
+ * over the {@link PageIndex} of a paged list, and the call to the wrapped adapter, which is
+ * megamorphic in an app with several adapters. The direct benchmarks call the wrapped adapter
+ * alone and give the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdapterWrapBenchmark {
+    private static final int VIEW_TYPE_HEADER = Integer.MAX_VALUE - 2;
+    private static final int VIEW_TYPE_FOOTER = Integer.MAX_VALUE - 1;
+    private static final int VIEW_TYPE_PLACEHOLDER = Integer.MAX_VALUE - 3;
+    private static final int SPAN_COUNT = 3;
+    private static final int LOADED_PAGES = 5;
+
+    @Param({"100", "10000"})
+    public int wrappedCount;
+
+    /**
+     * none: no paged list, append: pages of varying size, uniform: placeholder mode
+     */
+    @Param({"none", "append", "uniform"})
+    public String pages;
+
+    @Param({"false", "true"})
+    public boolean headerShown;
+
+    private final boolean mFooterShown = true;
+    private LoadedPages mPlaceholders;
+    private Wrapped mWrapped;
+
+    @Setup
+    public void setUp() {
+        if ("none".equals(pages)) {
+            mPlaceholders = null;
+        } else {
+            final PageIndex index = new PageIndex();
+            if ("uniform".equals(pages)) {
+                index.setUniform(wrappedCount, 20);
+            } else {
+                int size = 0;
+                for (int page = 0; size < wrappedCount; page++) {
+                    final int pageSize = Math.min(wrappedCount - size, 15 + page % 11);
+                    index.append(pageSize);
+                    size += pageSize;
+                }
+            }
+            // pages outside the window around the middle are evicted
+            mPlaceholders = new LoadedPages(index);
+            final int middle = index.getPageCount() / 2;
+            for (int page = middle - LOADED_PAGES / 2; page <= middle + LOADED_PAGES / 2; page++) {
+                if (page >= 0 && page < index.getPageCount()) {
+                    mPlaceholders.mLoaded[page] = true;
+                }
+            }
+        }
+        // make the wrapped call site see several adapter classes, as in an app
+        final Wrapped[] adapters = {new SingleTypeAdapter(), new AlternatingAdapter(), new LookupAdapter(wrappedCount)};
+        for (int i = 0; i < 30000; i++) {
+            final Wrapped adapter = adapters[i % adapters.length];
+            adapter.getItemViewType(i % wrappedCount);
+            adapter.getSpanSize(i % wrappedCount);
+        }
+        mWrapped = adapters[2];
+    }
+
+    @Benchmark
+    public void itemViewType(final Blackhole blackhole) {
+        final int count = getItemCount();
+        for (int position = 0; position < count; position++) {
+            blackhole.consume(getItemViewType(position));
+        }
+    }
+
+    @Benchmark
+    public void itemViewTypeDirect(final Blackhole blackhole) {
+        for (int position = 0; position < wrappedCount; position++) {
+            blackhole.consume(mWrapped.getItemViewType(position));
+        }
+    }
+
+    @Benchmark
+    public void spanSize(final Blackhole blackhole) {
+        final int count = getItemCount();
+        for (int position = 0; position < count; position++) {
+            blackhole.consume(getSpanSize(position));
+        }
+    }
+
+    @Benchmark
+    public void spanSizeDirect(final Blackhole blackhole) {
+        for (int position = 0; position < wrappedCount; position++) {
+            blackhole.consume(mWrapped.getSpanSize(position));
+        }
+    }
+
+    private int getItemCount() {
+        return (headerShown ? 1 : 0) + wrappedCount + (mFooterShown ? 1 : 0);
+    }
+
+    // EndlessRecyclerAdapter.getItemViewType without the error footer
+    private int getItemViewType(final int position) {
+        switch (PositionMath.slotOf(position, headerShown, mFooterShown, wrappedCount, mPlaceholders)) {
+            case PositionMath.SLOT_HEADER:
+                return VIEW_TYPE_HEADER;
+            case PositionMath.SLOT_FOOTER:
+                return VIEW_TYPE_FOOTER;
+            case PositionMath.SLOT_PLACEHOLDER:
+                return VIEW_TYPE_PLACEHOLDER;
+            default:
+                return mWrapped.getItemViewType(position - (headerShown ? 1 : 0));
+        }
+    }
+
+    // EndlessRecyclerAdapter.FullSpanSizeLookup.getSpanSize
+    private int getSpanSize(final int position) {
+        switch (PositionMath.slotOf(position, headerShown, mFooterShown, wrappedCount, mPlaceholders)) {
+            case PositionMath.SLOT_HEADER:
+            case PositionMath.SLOT_FOOTER:
+                return SPAN_COUNT;
+            case PositionMath.SLOT_PLACEHOLDER:
+                return 1;
+            default:
+                return mWrapped.getSpanSize(position - (headerShown ? 1 : 0));
+        }
+    }
+
+    /**
+     * Loaded pages of a paged list over its real {@link PageIndex}, PagedList itself needs the
+     * Android RecyclerView
+     */
+    static class LoadedPages implements PositionMath.Placeholders {
+        private final PageIndex mIndex;
+        private final boolean[] mLoaded;
+
+        LoadedPages(final PageIndex index) {
+            mIndex = index;
+            mLoaded = new boolean[index.getPageCount()];
+        }
+
+        @Override
+        public boolean isPlaceholder(final int position) {
+            final int page = mIndex.getPageOf(position);
+            return page >= 0 && !mLoaded[page];
+        }
+    }
+
+    /**
+     * Calls made on the wrapped adapter and its span lookup
+     */
+    interface Wrapped {
+        int getItemViewType(int position);
+
+        int getSpanSize(int position);
+    }
+
+    static class SingleTypeAdapter implements Wrapped {
+        @Override
+        public int getItemViewType(final int position) {
+            return 0;
+        }
+
+        @Override
+        public int getSpanSize(final int position) {
+            return 1;
+        }
+    }
+
+    static class AlternatingAdapter implements Wrapped {
+        @Override
+        public int getItemViewType(final int position) {
+            return position & 1;
+        }
+
+        @Override
+        public int getSpanSize(final int position) {
+            return position % 7 == 0 ? SPAN_COUNT : 1;
+        }
+    }
+
+    static class LookupAdapter implements Wrapped {
+        private final int[] mTypes;
+
+        LookupAdapter(final int count) {
+            mTypes = new int[count];
+            for (int i = 0; i < count; i++) {
+                mTypes[i] = i % 10 == 0 ? 1 : 0;
+            }
+        }
+
+        @Override
+        public int getItemViewType(final int position) {
+            return mTypes[position];
+        }
+
+        @Override
+        public int getSpanSize(final int position) {
+            return mTypes[position] == 1 ? SPAN_COUNT : 1;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.benchmark;
+
+import com.loadmore.PositionMath;
+
+/**
+ * Attached children of a list laid out along the scroll axis, read through the same
+ * {@link PositionMath.ChildCache} RecyclerViewHelper uses: one child fetch per index, then its
+ * start and end.
+ */
+public class ChildList extends PositionMath.ChildCache<ChildList.Child> {
+    private final Child[] mChildren;
+
+    /**
+     * @param childCount number of attached children
+     * @param itemSize   child size along the scroll axis
+     */
+    public ChildList(final int childCount, final int itemSize) {
+        mChildren = new Child[childCount];
+        for (int i = 0; i < childCount; i++) {
+            mChildren[i] = new Child();
+        }
+        layout(-itemSize / 2, itemSize);
+    }
+
+    /**
+     * Stack the children from the given start, as after a scroll
+     */
+    public void layout(final int start, final int itemSize) {
+        int childStart = start;
+        for (Child child : mChildren) {
+            child.start = childStart;
+            child.end = childStart + itemSize;
+            childStart += itemSize;
+        }
+    }
+
+    public int size() {
+        return mChildren.length;
+    }
+
+    @Override
+    protected Child getChild(final int index) {
+        return mChildren[index];
+    }
+
+    @Override
+    protected int getStart(final Child child) {
+        return child.start;
+    }
+
+    @Override
+    protected int getEnd(final Child child) {
+        return child.end;
+    }
+
+    /**
+     * Decorated bounds of an attached child
+     */
+    static class Child {
+        int start;
+        int end;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.benchmark;
+
+import com.loadmore.PositionMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Child scan of RecyclerViewHelper for layout managers other than LinearLayoutManager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FindVisibleChildBenchmark {
+    private static final int VIEWPORT = 1920;
+    private static final int ITEM_SIZE = 120;
+
+    @Param({"4", "16", "64", "256"})
+    public int childCount;
+
+    private ChildList mChildren;
+
+    @Setup
+    public void setUp() {
+        // first child scrolled half out, the rest stacked after it
+        mChildren = new ChildList(childCount, ITEM_SIZE);
+    }
+
+    @Benchmark
+    public int firstVisible() {
+        final int index = PositionMath.findOneVisible(mChildren, 0, childCount, 0, VIEWPORT, false, true);
+        mChildren.reset();
+        return index;
+    }
+
+    @Benchmark
+    public int firstCompletelyVisible() {
+        final int index = PositionMath.findOneVisible(mChildren, 0, childCount, 0, VIEWPORT, true, false);
+        mChildren.reset();
+        return index;
+    }
+
+    @Benchmark
+    public int lastVisible() {
+        final int index = PositionMath.findOneVisible(mChildren, childCount - 1, -1, 0, VIEWPORT, false, true);
+        mChildren.reset();
+        return index;
+    }
+
+    @Benchmark
+    public int lastCompletelyVisible() {
+        final int index = PositionMath.findOneVisible(mChildren, childCount - 1, -1, 0, VIEWPORT, true, false);
+        mChildren.reset();
+        return index;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.benchmark;
+
+import com.loadmore.LoadPredictor;
+import com.loadmore.PositionMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trigger evaluation of EndlessRecyclerView over a scroll through the list: per frame the
+ * children move, the {@link LoadPredictor} records the scroll and is asked first, then the first
+ * visible child is scanned for and the item count threshold checked, as in onScrolled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriggerBenchmark {
+    private static final int TOTAL = 1000;
+    private static final int VIEWPORT = 1920;
+    private static final int ITEM_SIZE = 120;
+    private static final int FRAME_DELTA = 40;
+    private static final int FRAME_MS = 16;
+
+    @Param({"17", "64"})
+    public int childCount;
+
+    private ChildList mChildren;
+    private LoadPredictor mPredictor;
+
+    @Setup
+    public void setUp() {
+        mChildren = new ChildList(childCount, ITEM_SIZE);
+        mPredictor = new LoadPredictor();
+    }
+
+    @Benchmark
+    public void scrollThroughList(final Blackhole blackhole) {
+        final int frames = (TOTAL - childCount) * ITEM_SIZE / FRAME_DELTA;
+        long now = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            final int offset = frame * FRAME_DELTA;
+            final int firstPosition = offset / ITEM_SIZE;
+            now += FRAME_MS;
+            mChildren.layout(firstPosition * ITEM_SIZE - offset, ITEM_SIZE);
+            mPredictor.onScrolled(FRAME_DELTA, now);
+            if (mPredictor.shouldLoad(TOTAL * ITEM_SIZE - offset - VIEWPORT)) {
+                blackhole.consume(true);
+                continue;
+            }
+            final int first = PositionMath.findOneVisible(mChildren, 0, childCount, 0, VIEWPORT, false, true);
+            mChildren.reset();
+            blackhole.consume(PositionMath.isThresholdReached(TOTAL, childCount, firstPosition + first, 3));
+        }
+        mPredictor.onScrollIdle();
+    }
+}
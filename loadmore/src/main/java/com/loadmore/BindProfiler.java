@@ -0,0 +1,182 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.util.SparseArray;
+
+/**
+ * Create and bind durations of the wrapped adapter per view type, recorded by
+ * {@link EndlessRecyclerAdapter} when set. Durations are kept in microseconds in
+ * {@link Histogram}s, calls longer than a fraction of the frame budget are reported to the
+ * listener. Called on the main thread, not thread safe.
+ */
+public class BindProfiler {
+    public static final long DEFAULT_FRAME_BUDGET_MS = 16;
+    public static final float DEFAULT_SLOW_FRACTION = 0.25f;
+
+    private final SparseArray<TypeStats> mStats = new SparseArray<>();
+    private long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_MS * 1000000L;
+    private float mSlowFraction = DEFAULT_SLOW_FRACTION;
+    private long mSlowNanos = (long) (mFrameBudgetNanos * mSlowFraction);
+    private OnSlowBindListener mListener;
+
+    /**
+     * Frame budget of the display, e.g. 8 on a 120Hz screen
+     *
+     * @param budgetMs budget in milliseconds
+     */
+    public BindProfiler setFrameBudget(final long budgetMs) {
+        this.mFrameBudgetNanos = Math.max(1, budgetMs) * 1000000L;
+        this.mSlowNanos = (long) (mFrameBudgetNanos * mSlowFraction);
+        return this;
+    }
+
+    /**
+     * Part of the frame budget a single create or bind may take before it is reported
+     *
+     * @param fraction 0 - 1
+     */
+    public BindProfiler setSlowFraction(final float fraction) {
+        this.mSlowFraction = Math.max(0f, fraction);
+        this.mSlowNanos = (long) (mFrameBudgetNanos * mSlowFraction);
+        return this;
+    }
+
+    public BindProfiler setOnSlowBindListener(final OnSlowBindListener listener) {
+        this.mListener = listener;
+        return this;
+    }
+
+    void onCreateMeasured(final int viewType, final long nanos) {
+        final TypeStats stats = getOrCreate(viewType);
+        stats.mCreate.record(nanos / 1000);
+        if (nanos > mSlowNanos) {
+            stats.mSlowCreates++;
+            if (mListener != null) {
+                mListener.onSlowCreate(viewType, nanos / 1000);
+            }
+        }
+    }
+
+    void onBindMeasured(final int viewType, final int position, final long nanos) {
+        final TypeStats stats = getOrCreate(viewType);
+        stats.mBind.record(nanos / 1000);
+        if (nanos > mSlowNanos) {
+            stats.mSlowBinds++;
+            if (mListener != null) {
+                mListener.onSlowBind(viewType, position, nanos / 1000);
+            }
+        }
+    }
+
+    /**
+     * Stats of one view type of the wrapped adapter
+     *
+     * @param viewType view type
+     * @return stats, or null if nothing of that type was created or bound
+     */
+    public TypeStats getStats(final int viewType) {
+        return mStats.get(viewType);
+    }
+
+    public int getViewTypeCount() {
+        return mStats.size();
+    }
+
+    public TypeStats getStatsAt(final int index) {
+        return mStats.valueAt(index);
+    }
+
+    public void reset() {
+        mStats.clear();
+    }
+
+    private TypeStats getOrCreate(final int viewType) {
+        TypeStats stats = mStats.get(viewType);
+        if (stats == null) {
+            stats = new TypeStats(viewType);
+            mStats.put(viewType, stats);
+        }
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("BindProfiler{");
+        for (int i = 0; i < mStats.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(mStats.valueAt(i));
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Create and bind durations of a view type, in microseconds
+     */
+    public static class TypeStats {
+        private final int mViewType;
+        private final Histogram mCreate = new Histogram();
+        private final Histogram mBind = new Histogram();
+        private long mSlowCreates;
+        private long mSlowBinds;
+
+        TypeStats(final int viewType) {
+            mViewType = viewType;
+        }
+
+        public int getViewType() {
+            return mViewType;
+        }
+
+        public Histogram getCreate() {
+            return mCreate;
+        }
+
+        public Histogram getBind() {
+            return mBind;
+        }
+
+        public long getSlowCreates() {
+            return mSlowCreates;
+        }
+
+        public long getSlowBinds() {
+            return mSlowBinds;
+        }
+
+        @Override
+        public String toString() {
+            return "TypeStats{" +
+                    "viewType=" + mViewType +
+                    ", create=" + mCreate +
+                    ", bind=" + mBind +
+                    ", slowCreates=" + mSlowCreates +
+                    ", slowBinds=" + mSlowBinds +
+                    '}';
+        }
+    }
+
+    /**
+     * Interface callback creates and binds over the slow threshold, durations in microseconds
+     */
+    public interface OnSlowBindListener {
+        void onSlowCreate(final int viewType, final long durationUs);
+
+        void onSlowBind(final int viewType, final int position, final long durationUs);
+    }
+}
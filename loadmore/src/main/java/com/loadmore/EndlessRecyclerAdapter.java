@@ -19,55 +19,108 @@ import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.RelativeLayout;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.RecyclerView.AdapterDataObserver;
 import androidx.recyclerview.widget.RecyclerView.ViewHolder;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import java.util.Collections;
+import java.util.List;
 
 public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
-    private static final int VIEW_TYPE_FOOTER = Integer.MAX_VALUE - 1;
+    static final int VIEW_TYPE_FOOTER = Integer.MAX_VALUE - 1;
+    static final int VIEW_TYPE_HEADER = Integer.MAX_VALUE - 2;
+    static final int VIEW_TYPE_PLACEHOLDER = Integer.MAX_VALUE - 3;
+    static final int VIEW_TYPE_ERROR = Integer.MAX_VALUE - 4;
+    /**
+     * Stable ids reserved for the loading slots, wrapped adapters must not use them
+     */
+    public static final long FOOTER_ITEM_ID = Long.MIN_VALUE;
+    public static final long HEADER_ITEM_ID = Long.MIN_VALUE + 1;
+    /**
+     * Start of the stable ids of placeholder rows, offset by their wrapped position
+     */
+    public static final long PLACEHOLDER_ITEM_ID = Long.MIN_VALUE + 2;
+    /**
+     * End of the reserved stable ids, exclusive. Ids from {@link #FOOTER_ITEM_ID} up to here belong
+     * to the wrapper and a wrapped adapter returning one of them fails in {@link #getItemId(int)}
+     */
+    public static final long RESERVED_ITEM_ID_END = PLACEHOLDER_ITEM_ID + Integer.MAX_VALUE;
 
     private RecyclerView.Adapter<ViewHolder> mWrapped;
     private EndlessRecyclerView.ViewState mViewState;
+    private boolean mFooterShown;
+    private boolean mHeaderShown;
+    private int mFooterState;
+    private int mHeaderState;
+    private int mDataSetChangedCount;
+    private PageSizeController mPageSizeController;
+    private BindProfiler mBindProfiler;
+    private boolean mObserverRegistered;
+    private PagedList mPagedList;
+    private int mPlaceholderLayout = R.layout.item_recycler_placeholder;
+    private View.OnClickListener mRetryClickListener;
 
     private AdapterDataObserver mAdapterDataObserver = new AdapterDataObserver() {
         @Override
         public void onItemRangeRemoved(final int positionStart, final int itemCount) {
             super.onItemRangeRemoved(positionStart, itemCount);
-            notifyItemRangeRemoved(positionStart, itemCount);
+            notifyItemRangeRemoved(positionStart + getHeaderCount(), itemCount);
         }
 
         @Override
         public void onItemRangeMoved(final int fromPosition, final int toPosition, final int itemCount) {
             super.onItemRangeMoved(fromPosition, toPosition, itemCount);
-            notifyItemRangeChanged(fromPosition, itemCount);
+            final int headerCount = getHeaderCount();
+            if (itemCount == 1) {
+                notifyItemMoved(fromPosition + headerCount, toPosition + headerCount);
+            } else {
+                // RecyclerView only supports single item moves, rebind the affected span
+                final int start = Math.min(fromPosition, toPosition);
+                final int end = Math.max(fromPosition, toPosition) + itemCount;
+                notifyItemRangeChanged(start + headerCount, end - start);
+            }
         }
 
         @Override
         public void onItemRangeInserted(final int positionStart, final int itemCount) {
             super.onItemRangeInserted(positionStart, itemCount);
-            notifyItemRangeInserted(positionStart, itemCount);
+            notifyItemRangeInserted(positionStart + getHeaderCount(), itemCount);
         }
 
         @Override
         public void onItemRangeChanged(final int positionStart, final int itemCount) {
             super.onItemRangeChanged(positionStart, itemCount);
-            notifyItemRangeChanged(positionStart, itemCount);
+            notifyItemRangeChanged(positionStart + getHeaderCount(), itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount, final Object payload) {
+            notifyItemRangeChanged(positionStart + getHeaderCount(), itemCount, payload);
         }
 
         @Override
         public void onChanged() {
             super.onChanged();
-            notifyDataSetChanged();
+            notifyDataSetChangedInternal();
         }
     };
 
     public EndlessRecyclerAdapter(final RecyclerView.Adapter<ViewHolder> adapter, final EndlessRecyclerView.ViewState state) {
         mWrapped = adapter;
-        mWrapped.registerAdapterDataObserver(mAdapterDataObserver);
+        registerWrappedObserver();
         mViewState = state;
+        mFooterShown = isFooterVisible();
+        mHeaderShown = isHeaderVisible();
+        mFooterState = state.getState();
+        mHeaderState = state.getHeaderState();
+        super.setHasStableIds(adapter.hasStableIds());
     }
 
     @SuppressWarnings("unused")
@@ -75,66 +128,253 @@ public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
         return mWrapped;
     }
 
+    /**
+     * Sync header and footer with current view state, only the slot whose state changed is notified
+     */
     public void updateState() {
-        notifyDataSetChanged();
+        updateHeaderState();
+        updateFooterState();
+    }
+
+    private void updateHeaderState() {
+        final int state = mViewState.getHeaderState();
+        if (state == mHeaderState) {
+            return;
+        }
+        mHeaderState = state;
+        final boolean shown = isHeaderVisible();
+        if (mHeaderShown && !shown) {
+            mHeaderShown = false;
+            notifyItemRemoved(0);
+        } else if (!mHeaderShown && shown) {
+            mHeaderShown = true;
+            notifyItemInserted(0);
+        } else if (shown) {
+            notifyItemChanged(0);
+        }
+    }
+
+    private void updateFooterState() {
+        final int state = mViewState.getState();
+        if (state == mFooterState) {
+            return;
+        }
+        mFooterState = state;
+        final boolean shown = isFooterVisible();
+        final int footerPosition = getHeaderCount() + mWrapped.getItemCount();
+        if (mFooterShown && !shown) {
+            mFooterShown = false;
+            notifyItemRemoved(footerPosition);
+        } else if (!mFooterShown && shown) {
+            mFooterShown = true;
+            notifyItemInserted(footerPosition);
+        } else if (shown) {
+            notifyItemChanged(footerPosition);
+        }
+    }
+
+    /**
+     * Controller receiving the bind duration of wrapped items
+     *
+     * @param controller page size controller, null to stop measuring
+     */
+    public void setPageSizeController(final PageSizeController controller) {
+        mPageSizeController = controller;
+    }
+
+    /**
+     * Profiler receiving the create and bind duration of wrapped items per view type
+     *
+     * @param profiler bind profiler, null to stop measuring
+     */
+    public void setBindProfiler(final BindProfiler profiler) {
+        mBindProfiler = profiler;
+    }
+
+    /**
+     * Number of full data set notifications sent by this wrapper
+     *
+     * @return count of notifyDataSetChanged calls
+     */
+    public int getDataSetChangedCount() {
+        return mDataSetChangedCount;
     }
 
     @Override
     public void onAttachedToRecyclerView(@NonNull final RecyclerView recyclerView) {
         super.onAttachedToRecyclerView(recyclerView);
+        registerWrappedObserver();
         mWrapped.onAttachedToRecyclerView(recyclerView);
+        setupSpanSizeLookup(recyclerView.getLayoutManager());
+    }
+
+    /**
+     * Make the header and footer slots span the full width of a grid
+     *
+     * @param layoutManager layout manager of the recycler view
+     */
+    public void setupSpanSizeLookup(final RecyclerView.LayoutManager layoutManager) {
+        if (!(layoutManager instanceof GridLayoutManager)) {
+            return;
+        }
+        final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+        final GridLayoutManager.SpanSizeLookup current = gridLayoutManager.getSpanSizeLookup();
+        if (current instanceof FullSpanSizeLookup) {
+            return;
+        }
+        gridLayoutManager.setSpanSizeLookup(new FullSpanSizeLookup(gridLayoutManager, current));
     }
 
     @Override
     public void onDetachedFromRecyclerView(@NonNull final RecyclerView recyclerView) {
         super.onDetachedFromRecyclerView(recyclerView);
         mWrapped.onDetachedFromRecyclerView(recyclerView);
-        mWrapped.unregisterAdapterDataObserver(mAdapterDataObserver);
+        if (mObserverRegistered) {
+            mObserverRegistered = false;
+            mWrapped.unregisterAdapterDataObserver(mAdapterDataObserver);
+        }
+    }
+
+    private void registerWrappedObserver() {
+        if (!mObserverRegistered) {
+            mObserverRegistered = true;
+            mWrapped.registerAdapterDataObserver(mAdapterDataObserver);
+        }
+    }
+
+    private boolean isLoadingSlot(final ViewHolder holder) {
+        final int type = holder.getItemViewType();
+        return type == VIEW_TYPE_FOOTER || type == VIEW_TYPE_HEADER || type == VIEW_TYPE_PLACEHOLDER
+                || type == VIEW_TYPE_ERROR;
+    }
+
+    /**
+     * Bind placeholder rows for items of the paged list that are not loaded,
+     * the wrapped adapter is only asked for loaded items
+     *
+     * @param pagedList list backing the wrapped adapter, null to disable
+     */
+    public void setPagedList(final PagedList pagedList) {
+        mPagedList = pagedList;
+    }
+
+    /**
+     * Click listener of the retry button shown in the footer slot in the error state
+     *
+     * @param listener retry listener
+     */
+    public void setOnRetryClickListener(final View.OnClickListener listener) {
+        mRetryClickListener = listener;
+    }
+
+    /**
+     * Layout inflated for placeholder rows
+     *
+     * @param layoutRes layout resource
+     */
+    public void setPlaceholderLayout(final int layoutRes) {
+        mPlaceholderLayout = layoutRes;
     }
 
     @Override
     public void onViewAttachedToWindow(@NonNull final ViewHolder holder) {
         super.onViewAttachedToWindow(holder);
-        mWrapped.onViewAttachedToWindow(holder);
+        if (isLoadingSlot(holder)) {
+            if (holder.getItemViewType() != VIEW_TYPE_PLACEHOLDER) {
+                // placeholders take one span like the rows they stand for
+                setFullSpan(holder);
+            }
+        } else {
+            mWrapped.onViewAttachedToWindow(holder);
+        }
     }
 
     @Override
     public void onViewDetachedFromWindow(@NonNull final ViewHolder holder) {
         super.onViewDetachedFromWindow(holder);
-        mWrapped.onViewDetachedFromWindow(holder);
+        if (!isLoadingSlot(holder)) {
+            mWrapped.onViewDetachedFromWindow(holder);
+        }
     }
 
     @Override
     public void onViewRecycled(@NonNull final ViewHolder holder) {
         super.onViewRecycled(holder);
-        mWrapped.onViewRecycled(holder);
+        if (!isLoadingSlot(holder)) {
+            mWrapped.onViewRecycled(holder);
+        }
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull final ViewHolder holder) {
+        if (isLoadingSlot(holder)) {
+            return super.onFailedToRecycleView(holder);
+        }
+        return mWrapped.onFailedToRecycleView(holder);
     }
 
     @Override
     public void setHasStableIds(final boolean hasStableIds) {
         mWrapped.setHasStableIds(hasStableIds);
+        super.setHasStableIds(hasStableIds);
     }
 
     @Override
     public long getItemId(final int position) {
-        if (getItemViewType(position) == VIEW_TYPE_FOOTER) {
-            return position;
-        } else {
-            return mWrapped.getItemId(position);
+        switch (PositionMath.slotOf(position, mHeaderShown, mFooterShown, mWrapped.getItemCount(), mPagedList)) {
+            case PositionMath.SLOT_HEADER:
+                return HEADER_ITEM_ID;
+            case PositionMath.SLOT_FOOTER:
+                return FOOTER_ITEM_ID;
+            case PositionMath.SLOT_PLACEHOLDER:
+                return PLACEHOLDER_ITEM_ID + position - getHeaderCount();
+            default:
+                final int wrappedPosition = position - getHeaderCount();
+                final long id = mWrapped.getItemId(wrappedPosition);
+                if (id < RESERVED_ITEM_ID_END) {
+                    throw new IllegalStateException("wrapped item " + wrappedPosition + " has reserved stable id " + id);
+                }
+                return id;
         }
     }
 
     @Override
     public int getItemCount() {
-        return mWrapped.getItemCount() + getFooterCount();
+        return getHeaderCount() + mWrapped.getItemCount() + getFooterCount();
     }
 
     @Override
     public int getItemViewType(final int position) {
-        if (position == mWrapped.getItemCount()) {
-            return VIEW_TYPE_FOOTER;
+        switch (PositionMath.slotOf(position, mHeaderShown, mFooterShown, mWrapped.getItemCount(), mPagedList)) {
+            case PositionMath.SLOT_HEADER:
+                return VIEW_TYPE_HEADER;
+            case PositionMath.SLOT_FOOTER:
+                return mViewState.getState() == EndlessRecyclerView.STATE_ERROR ? VIEW_TYPE_ERROR : VIEW_TYPE_FOOTER;
+            case PositionMath.SLOT_PLACEHOLDER:
+                return VIEW_TYPE_PLACEHOLDER;
+            default:
+                return mWrapped.getItemViewType(position - getHeaderCount());
         }
-        return mWrapped.getItemViewType(position);
+    }
+
+    /**
+     * Whether the position holds the loading footer or the retry footer
+     *
+     * @param position adapter position
+     * @return true for the footer slot
+     */
+    public boolean isFooterPosition(final int position) {
+        return PositionMath.slotOf(position, mHeaderShown, mFooterShown, mWrapped.getItemCount())
+                == PositionMath.SLOT_FOOTER;
+    }
+
+    /**
+     * Number of loading slots shown before the wrapped items
+     *
+     * @return 1 if the header is shown, 0 otherwise
+     */
+    public int getHeaderCount() {
+        return mHeaderShown ? 1 : 0;
     }
 
     @NonNull
@@ -142,6 +382,18 @@ public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
     public ViewHolder onCreateViewHolder(@NonNull final ViewGroup parent, final int viewType) {
         if (viewType == VIEW_TYPE_FOOTER) {
             return createFooterViewHolder(parent);
+        } else if (viewType == VIEW_TYPE_HEADER) {
+            return createHeaderViewHolder(parent);
+        } else if (viewType == VIEW_TYPE_ERROR) {
+            return createErrorViewHolder(parent);
+        } else if (viewType == VIEW_TYPE_PLACEHOLDER) {
+            final View view = LayoutInflater.from(parent.getContext()).inflate(mPlaceholderLayout, parent, false);
+            return new PlaceholderViewHolder(view);
+        } else if (mBindProfiler != null) {
+            final long start = System.nanoTime();
+            final ViewHolder holder = mWrapped.onCreateViewHolder(parent, viewType);
+            mBindProfiler.onCreateMeasured(viewType, System.nanoTime() - start);
+            return holder;
         } else {
             return mWrapped.onCreateViewHolder(parent, viewType);
         }
@@ -149,17 +401,57 @@ public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
 
     @Override
     public void onBindViewHolder(@NonNull final ViewHolder holder, final int position) {
+        onBindViewHolder(holder, position, Collections.<Object>emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull final ViewHolder holder, final int position,
+                                 @NonNull final List<Object> payloads) {
         final int type = getItemViewType(position);
         if (type == VIEW_TYPE_FOOTER) {
             bindFooterViewHolder(holder);
+        } else if (type == VIEW_TYPE_HEADER) {
+            bindHeaderViewHolder(holder);
+        } else if (type == VIEW_TYPE_ERROR) {
+            bindErrorViewHolder(holder);
+        } else if (type == VIEW_TYPE_PLACEHOLDER) {
+            return;
+        } else if (mPageSizeController != null || mBindProfiler != null) {
+            final int wrappedPosition = position - getHeaderCount();
+            final long start = System.nanoTime();
+            mWrapped.onBindViewHolder(holder, wrappedPosition, payloads);
+            final long duration = System.nanoTime() - start;
+            if (mPageSizeController != null) {
+                mPageSizeController.onBindMeasured(duration);
+            }
+            if (mBindProfiler != null) {
+                mBindProfiler.onBindMeasured(type, wrappedPosition, duration);
+            }
         } else {
-            mWrapped.onBindViewHolder(holder, position);
+            mWrapped.onBindViewHolder(holder, position - getHeaderCount(), payloads);
         }
     }
 
 
     private int getFooterCount() {
-        return (mViewState.getState() == EndlessRecyclerView.STATE_HIDE) ? 0 : 1;
+        return mFooterShown ? 1 : 0;
+    }
+
+    private boolean isFooterVisible() {
+        return mViewState.getState() != EndlessRecyclerView.STATE_HIDE;
+    }
+
+    private boolean isHeaderVisible() {
+        return mViewState.getHeaderState() != EndlessRecyclerView.STATE_HIDE;
+    }
+
+    private void notifyDataSetChangedInternal() {
+        mDataSetChangedCount++;
+        mFooterShown = isFooterVisible();
+        mHeaderShown = isHeaderVisible();
+        mFooterState = mViewState.getState();
+        mHeaderState = mViewState.getHeaderState();
+        notifyDataSetChanged();
     }
 
     private ViewHolder createFooterViewHolder(final ViewGroup parent) {
@@ -169,7 +461,52 @@ public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
         return new SimpleViewHolder(view);
     }
 
+    private ViewHolder createHeaderViewHolder(final ViewGroup parent) {
+        final Context context = parent.getContext();
+        final LayoutInflater inflater = LayoutInflater.from(context);
+        final View view = inflater.inflate(R.layout.item_recycler_header, parent, false);
+        return new HeaderViewHolder(view);
+    }
+
+    private ViewHolder createErrorViewHolder(final ViewGroup parent) {
+        final Context context = parent.getContext();
+        final LayoutInflater inflater = LayoutInflater.from(context);
+        final View view = inflater.inflate(R.layout.item_recycler_error, parent, false);
+        return new ErrorViewHolder(view);
+    }
+
+    private void setFullSpan(final ViewHolder holder) {
+        final ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
+        if (params instanceof StaggeredGridLayoutManager.LayoutParams) {
+            ((StaggeredGridLayoutManager.LayoutParams) params).setFullSpan(true);
+        }
+    }
+
+    private void bindHeaderViewHolder(final ViewHolder holder) {
+        setFullSpan(holder);
+        HeaderViewHolder header = (HeaderViewHolder) holder;
+        if (mViewState.getHeaderState() == EndlessRecyclerView.STATE_SHOW) {
+            header.mRlHeaderRecycler.setVisibility(View.VISIBLE);
+        } else {
+            header.mRlHeaderRecycler.setVisibility(View.GONE);
+        }
+    }
+
+    private void bindErrorViewHolder(final ViewHolder holder) {
+        setFullSpan(holder);
+        final ErrorViewHolder error = (ErrorViewHolder) holder;
+        // set on bind, holders from a shared pool may have been created by another list
+        error.mBtnRetryRecycler.setOnClickListener(mRetryClickListener);
+        final CharSequence text = mViewState.getText();
+        if (text != null) {
+            error.mTvErrorRecycler.setText(text);
+        } else {
+            error.mTvErrorRecycler.setText(R.string.loadmore_error);
+        }
+    }
+
     private void bindFooterViewHolder(final ViewHolder holder) {
+        setFullSpan(holder);
         SimpleViewHolder footer = (SimpleViewHolder) holder;
         switch (mViewState.getState()) {
             case EndlessRecyclerView.STATE_SHOW:
@@ -196,4 +533,67 @@ public class EndlessRecyclerAdapter extends RecyclerView.Adapter<ViewHolder> {
             mRlFooterRecycler = itemView.findViewById(R.id.rlFooterRecycler);
         }
     }
+
+    /**
+     * holder header recycler view
+     */
+    static class HeaderViewHolder extends ViewHolder {
+        private RelativeLayout mRlHeaderRecycler;
+
+        public HeaderViewHolder(final View itemView) {
+            super(itemView);
+            mRlHeaderRecycler = itemView.findViewById(R.id.rlHeaderRecycler);
+        }
+    }
+
+    /**
+     * holder error footer recycler view
+     */
+    static class ErrorViewHolder extends ViewHolder {
+        private TextView mTvErrorRecycler;
+        private Button mBtnRetryRecycler;
+
+        public ErrorViewHolder(final View itemView) {
+            super(itemView);
+            mTvErrorRecycler = itemView.findViewById(R.id.tvErrorRecycler);
+            mBtnRetryRecycler = itemView.findViewById(R.id.btnRetryRecycler);
+        }
+    }
+
+    /**
+     * holder placeholder row
+     */
+    static class PlaceholderViewHolder extends ViewHolder {
+        public PlaceholderViewHolder(final View itemView) {
+            super(itemView);
+        }
+    }
+
+    /**
+     * Span lookup giving the header and footer slots the full span count
+     */
+    class FullSpanSizeLookup extends GridLayoutManager.SpanSizeLookup {
+        private final GridLayoutManager mLayoutManager;
+        private final GridLayoutManager.SpanSizeLookup mDelegate;
+
+        FullSpanSizeLookup(final GridLayoutManager layoutManager, final GridLayoutManager.SpanSizeLookup delegate) {
+            mLayoutManager = layoutManager;
+            mDelegate = delegate;
+            setSpanIndexCacheEnabled(true);
+            setSpanGroupIndexCacheEnabled(true);
+        }
+
+        @Override
+        public int getSpanSize(final int position) {
+            switch (PositionMath.slotOf(position, mHeaderShown, mFooterShown, mWrapped.getItemCount(), mPagedList)) {
+                case PositionMath.SLOT_HEADER:
+                case PositionMath.SLOT_FOOTER:
+                    return mLayoutManager.getSpanCount();
+                case PositionMath.SLOT_PLACEHOLDER:
+                    return 1;
+                default:
+                    return mDelegate == null ? 1 : mDelegate.getSpanSize(position - getHeaderCount());
+            }
+        }
+    }
 }
@@ -16,54 +16,139 @@
 package com.loadmore;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.widget.Scroller;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 public class EndlessRecyclerView extends RecyclerView {
     public static final String TAG = EndlessRecyclerView.class.getSimpleName();
     public static final int DEFAULT_THRESHOLD = 3;
     public static final int STATE_HIDE = 0;
     public static final int STATE_SHOW = 1;
+    public static final int STATE_ERROR = 2;
     public static final int MODE_AUTO = 0;
     public static final int MODE_NONE = 1;
     private EndlessRecyclerView mRecyclerView = this;
     private ViewState mViewState = new ViewState();
     private EndlessRecyclerAdapter mAdapter;
     private OnLoadMoreListener mLoadMoreListener;
+    private OnLoadPreviousListener mLoadPreviousListener;
+    private OnLoadMoreCursorListener mLoadMoreCursorListener;
     private volatile ScrollType mScrollLoadType = ScrollType.FIRST_LOAD;
+    private volatile ScrollType mPrevLoadType = ScrollType.FIRST_LOAD;
+    private LoadPredictor mLoadPredictor = new LoadPredictor();
+    private RecyclerViewHelper mRecyclerViewHelper;
+    private boolean mPredictiveLoad;
+    private boolean mUpdatingHeader;
+    private PagedList mPagedList;
+    private PageLoader mPageLoader;
+    private LoadMetrics mLoadMetrics = new LoadMetrics();
+    private PageSizeController mPageSizeController;
+    private BindProfiler mBindProfiler;
+    private boolean mFlingPageSkipping;
+    private Scroller mFlingScroller;
+    private Preloader mPreloader;
+    private LoadScheduler mLoadScheduler;
+    private boolean mFillCheckPosted;
+    private int mFillItemCount = -1;
+    private RetryBackoff mRetryBackoff = new RetryBackoff();
+    private long mRetryAt = -1;
+    private boolean mFirstPageFailed;
 
     private OnScrollListener mEndlessScrollListener = new OnScrollListener() {
         @Override
         public void onScrolled(@NonNull final RecyclerView recyclerView, final int dx, final int dy) {
             super.onScrolled(recyclerView, dx, dy);
+            updatePagedWindow(recyclerView);
+            updateStall(recyclerView);
+            final LayoutManager layoutManager = recyclerView.getLayoutManager();
+            final boolean vertical = layoutManager == null || layoutManager.canScrollVertically();
+            mLoadPredictor.onScrolled(vertical ? dy : dx, SystemClock.uptimeMillis());
+            updatePreloader(recyclerView, vertical ? dy : dx);
+            if (!mPredictiveLoad) {
+                return;
+            }
+            if (canTriggerLoadMore() && (isPredictedEnd(recyclerView, vertical) || isThresholdReached(recyclerView))) {
+                dispatchLoadMore();
+            }
         }
 
         @Override
         public void onScrollStateChanged(@NonNull final RecyclerView recyclerView, final int newState) {
             super.onScrollStateChanged(recyclerView, newState);
-            if (mViewState.getMode() != MODE_AUTO) {
-                return;
-            }
-            if (mScrollLoadType == ScrollType.FIRST_LOAD || mScrollLoadType == ScrollType.PENDING
-                    || mScrollLoadType == ScrollType.DONE) {
-                return;
+            if (mPagedList != null) {
+                mPagedList.setScrolling(newState != SCROLL_STATE_IDLE);
             }
-            final RecyclerViewHelper recyclerViewHelper = new RecyclerViewHelper(recyclerView);
-            final int threshold = mViewState.getThreshold();
-            int visibleItemCount = recyclerView.getChildCount();
-            int totalItemCount = recyclerViewHelper.getItemCount();
-            int firstVisibleItem = recyclerViewHelper.findFirstVisibleItemPosition();
-            if ((totalItemCount - visibleItemCount) <= (firstVisibleItem + threshold)) {
-                mViewState.incIndex();
-                setLoading(ScrollType.PENDING);
-                if (mLoadMoreListener != null) {
-                    mLoadMoreListener.onLoadMore(mRecyclerView);
+            if (newState == SCROLL_STATE_IDLE) {
+                mLoadPredictor.onScrollIdle();
+                if (mPagedList != null) {
+                    mPagedList.clearFlingTarget();
+                    updatePagedWindow(recyclerView);
                 }
             }
+            if (canTriggerLoadMore() && isThresholdReached(recyclerView)) {
+                dispatchLoadMore();
+            }
+            if (canTriggerLoadPrevious() && isPrevThresholdReached(recyclerView)) {
+                dispatchLoadPrevious();
+            }
+        }
+    };
+
+    /**
+     * Checks after a layout pass: footer stall while a page is pending, and the threshold, which
+     * loads pages until the content covers the viewport
+     */
+    private Runnable mFillViewportCheck = new Runnable() {
+        @Override
+        public void run() {
+            mFillCheckPosted = false;
+            updateStall(mRecyclerView);
+            fillViewport();
+        }
+    };
+
+    /**
+     * A request deferred while the list was off screen is dispatched once it scrolls into view
+     */
+    private ViewTreeObserver.OnScrollChangedListener mSchedulerScrollListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            if (mLoadScheduler != null && mLoadScheduler.isQueued(mRecyclerView)) {
+                mLoadScheduler.dispatch();
+            }
+        }
+    };
+
+    private Runnable mPagedWindowUpdate = new Runnable() {
+        @Override
+        public void run() {
+            updatePagedWindow(mRecyclerView);
+        }
+    };
+
+    private Runnable mAutoRetry = new Runnable() {
+        @Override
+        public void run() {
+            mRetryAt = -1;
+            retryLoadMore();
+        }
+    };
+
+    private AdapterDataObserver mAnchorObserver = new AdapterDataObserver() {
+        @Override
+        public void onItemRangeInserted(final int positionStart, final int itemCount) {
+            super.onItemRangeInserted(positionStart, itemCount);
+            keepScrollAnchor(positionStart, itemCount);
         }
     };
 
@@ -85,12 +170,214 @@ public class EndlessRecyclerView extends RecyclerView {
         addOnScrollListener(mEndlessScrollListener);
     }
 
+    private boolean canTriggerLoadMore() {
+        if (mViewState.getMode() != MODE_AUTO) {
+            return false;
+        }
+        return mScrollLoadType == ScrollType.IN_PROGRESS;
+    }
+
+    private boolean isThresholdReached(final RecyclerView recyclerView) {
+        final RecyclerViewHelper recyclerViewHelper = getRecyclerViewHelper(recyclerView);
+        final int threshold = mViewState.getThreshold();
+        final LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager || layoutManager instanceof StaggeredGridLayoutManager) {
+            final int rows = recyclerViewHelper.getRowsAfterLastVisible();
+            return rows >= 0 && rows <= threshold;
+        }
+        int visibleItemCount = recyclerView.getChildCount();
+        int totalItemCount = recyclerViewHelper.getItemCount();
+        int firstVisibleItem = recyclerViewHelper.findFirstVisibleItemPosition();
+        return PositionMath.isThresholdReached(totalItemCount, visibleItemCount, firstVisibleItem, threshold);
+    }
+
+    private void fillViewport() {
+        if (!canTriggerLoadMore() || getScrollState() != SCROLL_STATE_IDLE) {
+            return;
+        }
+        final int itemCount = getWrappedItemCount();
+        // the previous fill load added nothing, wait for a scroll instead of looping
+        if (itemCount == 0 || itemCount == mFillItemCount) {
+            return;
+        }
+        if (isThresholdReached(this)) {
+            mFillItemCount = itemCount;
+            dispatchLoadMore();
+        }
+    }
+
+    private RecyclerViewHelper getRecyclerViewHelper(final RecyclerView recyclerView) {
+        if (mRecyclerViewHelper == null) {
+            mRecyclerViewHelper = new RecyclerViewHelper(recyclerView);
+        }
+        return mRecyclerViewHelper.attach(recyclerView);
+    }
+
+    private boolean isPredictedEnd(final RecyclerView recyclerView, final boolean vertical) {
+        final int remaining;
+        if (vertical) {
+            remaining = recyclerView.computeVerticalScrollRange() - recyclerView.computeVerticalScrollOffset()
+                    - recyclerView.computeVerticalScrollExtent();
+        } else {
+            remaining = recyclerView.computeHorizontalScrollRange() - recyclerView.computeHorizontalScrollOffset()
+                    - recyclerView.computeHorizontalScrollExtent();
+        }
+        return mLoadPredictor.shouldLoad(remaining);
+    }
+
+    private boolean canTriggerLoadPrevious() {
+        if (mViewState.getMode() != MODE_AUTO) {
+            return false;
+        }
+        return mPrevLoadType == ScrollType.IN_PROGRESS;
+    }
+
+    private boolean isPrevThresholdReached(final RecyclerView recyclerView) {
+        final int firstVisibleItem = getRecyclerViewHelper(recyclerView).findFirstVisibleItemPosition();
+        return firstVisibleItem != NO_POSITION && firstVisibleItem <= mViewState.getThreshold();
+    }
+
+    private void dispatchLoadPrevious() {
+        mViewState.incPrevIndex();
+        setLoadingPrevious(ScrollType.PENDING);
+        if (mLoadPreviousListener != null) {
+            mLoadPreviousListener.onLoadPrevious(mRecyclerView);
+        }
+    }
+
+    /**
+     * Keep the first visible item at the same offset when a previous page is inserted above it,
+     * so prepended pages do not move the visible content. Other inserts at the top, e.g. a
+     * refresh, keep the default behaviour and reveal the new rows.
+     */
+    private void keepScrollAnchor(final int positionStart, final int itemCount) {
+        final LayoutManager layoutManager = getLayoutManager();
+        if (mPrevLoadType != ScrollType.PENDING || mUpdatingHeader || mAdapter == null
+                || !(layoutManager instanceof LinearLayoutManager)) {
+            return;
+        }
+        final int headerCount = mAdapter.getHeaderCount();
+        for (int i = 0; i < layoutManager.getChildCount(); i++) {
+            final View anchor = layoutManager.getChildAt(i);
+            final int anchorPosition = layoutManager.getPosition(anchor);
+            if (anchorPosition == NO_POSITION || anchorPosition < headerCount) {
+                continue;
+            }
+            if (positionStart <= anchorPosition) {
+                final int offset = getRecyclerViewHelper(this).getStartOffset(anchor);
+                ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(anchorPosition + itemCount, offset);
+            }
+            return;
+        }
+    }
+
+    private void updatePagedWindow(final RecyclerView recyclerView) {
+        if (mPagedList == null || mAdapter == null) {
+            return;
+        }
+        final RecyclerViewHelper recyclerViewHelper = getRecyclerViewHelper(recyclerView);
+        final int first = recyclerViewHelper.findFirstVisibleItemPosition();
+        final int last = recyclerViewHelper.findLastVisibleItemPosition();
+        if (first == NO_POSITION || last == NO_POSITION) {
+            return;
+        }
+        final int headerCount = mAdapter.getHeaderCount();
+        mPagedList.onVisibleRange(Math.max(0, first - headerCount), Math.max(0, last - headerCount));
+    }
+
+    private void updatePreloader(final RecyclerView recyclerView, final int delta) {
+        if (mPreloader == null || mAdapter == null) {
+            return;
+        }
+        final RecyclerViewHelper recyclerViewHelper = getRecyclerViewHelper(recyclerView);
+        final int first = recyclerViewHelper.findFirstVisibleItemPosition();
+        final int last = recyclerViewHelper.findLastVisibleItemPosition();
+        if (first == NO_POSITION || last == NO_POSITION) {
+            return;
+        }
+        final int headerCount = mAdapter.getHeaderCount();
+        final int wrappedCount = getWrappedItemCount();
+        mPreloader.onScrolled(Math.max(0, first - headerCount), Math.min(wrappedCount - 1, last - headerCount),
+                delta, wrappedCount);
+    }
+
+    private void updateStall(final RecyclerView recyclerView) {
+        if (mAdapter == null || mScrollLoadType != ScrollType.PENDING) {
+            return;
+        }
+        final int last = getRecyclerViewHelper(recyclerView).findLastVisibleItemPosition();
+        final long now = SystemClock.uptimeMillis();
+        if (last != NO_POSITION && mAdapter.isFooterPosition(last)) {
+            mLoadMetrics.onFooterVisible(now);
+        } else {
+            mLoadMetrics.onFooterHidden(now);
+        }
+    }
+
+    private int getWrappedItemCount() {
+        return mAdapter == null ? 0 : mAdapter.getWrapped().getItemCount();
+    }
+
+    private void dispatchLoadMore() {
+        if (mLoadMoreCursorListener == null) {
+            mViewState.incIndex();
+        }
+        setLoading(ScrollType.PENDING);
+        final long now = SystemClock.uptimeMillis();
+        mLoadPredictor.onLoadRequested(now);
+        mLoadMetrics.onLoadRequested(now, getWrappedItemCount());
+        // the list may already rest on the footer, no scroll frame follows a settled drag
+        updateStall(mRecyclerView);
+        if (mLoadScheduler != null) {
+            mLoadScheduler.enqueue(this);
+        } else {
+            performLoadMore();
+        }
+    }
+
+    void performLoadMore() {
+        if (mLoadMoreCursorListener != null) {
+            mLoadMoreCursorListener.onLoadMore(mRecyclerView, mViewState.getCursor());
+        } else if (mLoadMoreListener != null) {
+            mLoadMoreListener.onLoadMore(mRecyclerView);
+        }
+    }
+
+    /**
+     * Queued request dropped by the scheduler, the trigger is armed again
+     */
+    void onLoadDropped() {
+        if (mScrollLoadType != ScrollType.PENDING) {
+            // already dropped, e.g. by cancelPageLoads() before the scheduler
+            return;
+        }
+        if (mLoadMoreCursorListener == null) {
+            mViewState.setIndex(mViewState.getIndex() - 1);
+        }
+        mScrollLoadType = ScrollType.IN_PROGRESS;
+    }
+
+    boolean isLoadPending() {
+        return mScrollLoadType == ScrollType.PENDING;
+    }
+
+    int getRowsToEnd() {
+        final int rows = getRecyclerViewHelper(this).getRowsAfterLastVisible();
+        return rows < 0 ? Integer.MAX_VALUE : rows;
+    }
+
     private void updateState() {
         if (mAdapter != null) {
             mAdapter.updateState();
         }
     }
 
+    private void updateHeaderState() {
+        mUpdatingHeader = true;
+        updateState();
+        mUpdatingHeader = false;
+    }
+
     public void showProgress() {
         if (mViewState.getMode() != MODE_NONE) {
             mViewState.setState(STATE_SHOW);
@@ -100,12 +387,94 @@ public class EndlessRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * Show the retry footer, the message is taken from {@link ViewState#getText()} when set
+     */
+    public void showError() {
+        if (mViewState.getMode() != MODE_NONE) {
+            mViewState.setState(STATE_ERROR);
+            updateState();
+        } else {
+            Log.w(TAG, "showError() ignore, endless mode is disabled");
+        }
+    }
+
     public void hideProgress() {
         mViewState.setState(STATE_HIDE);
         updateState();
     }
 
+    public void showHeaderProgress() {
+        if (mViewState.getMode() != MODE_NONE) {
+            mViewState.setHeaderState(STATE_SHOW);
+            updateHeaderState();
+        } else {
+            Log.w(TAG, "showHeaderProgress() ignore, endless mode is disabled");
+        }
+    }
+
+    public void hideHeaderProgress() {
+        mViewState.setHeaderState(STATE_HIDE);
+        updateHeaderState();
+    }
+
+    /**
+     * Loading state of previous pages, shown through the header slot
+     *
+     * @param scrollType scroll type
+     */
+    public void setLoadingPrevious(ScrollType scrollType) {
+        mPrevLoadType = scrollType;
+        switch (scrollType) {
+            case IN_PROGRESS:
+                showHeaderProgress();
+                break;
+            case PENDING:
+                break;
+            case FIRST_LOAD:
+            case DONE:
+            default:
+                hideHeaderProgress();
+                break;
+        }
+    }
+
     public void setLoading(ScrollType scrollType) {
+        final long now = SystemClock.uptimeMillis();
+        if (mScrollLoadType == ScrollType.PENDING && scrollType != ScrollType.PENDING) {
+            mLoadPredictor.onLoadFinished(now);
+            mLoadMetrics.onLoadFinished(now, getWrappedItemCount());
+            if (mLoadScheduler != null) {
+                // the request may still be queued, e.g. the list was reset while waiting for a slot
+                mLoadScheduler.remove(this);
+                mLoadScheduler.onLoadFinished(this);
+            }
+            if (mFirstPageFailed && scrollType != ScrollType.ERROR) {
+                // the retry of a failed first load delivered the first page
+                mFirstPageFailed = false;
+                mLoadMetrics.onFirstPage(now, getWrappedItemCount());
+            }
+        } else if (mScrollLoadType == ScrollType.FIRST_LOAD && scrollType != ScrollType.FIRST_LOAD) {
+            if (scrollType == ScrollType.ERROR) {
+                mFirstPageFailed = true;
+            } else {
+                mLoadMetrics.onFirstPage(now, getWrappedItemCount());
+            }
+        }
+        if (scrollType == ScrollType.ERROR) {
+            // the failed page was not loaded, the retry requests the same index again
+            if ((mScrollLoadType == ScrollType.PENDING || mScrollLoadType == ScrollType.FIRST_LOAD)
+                    && mLoadMoreCursorListener == null) {
+                mViewState.setIndex(mViewState.getIndex() - 1);
+            }
+        } else if (scrollType != ScrollType.PENDING) {
+            cancelAutoRetry();
+            mRetryBackoff.reset();
+        }
+        if (scrollType == ScrollType.FIRST_LOAD) {
+            mFillItemCount = -1;
+            mFirstPageFailed = false;
+        }
         mScrollLoadType = scrollType;
         switch (scrollType) {
             case IN_PROGRESS:
@@ -113,6 +482,10 @@ public class EndlessRecyclerView extends RecyclerView {
                 break;
             case PENDING:
                 break;
+            case ERROR:
+                showError();
+                scheduleAutoRetry();
+                break;
             case FIRST_LOAD:
             case DONE:
             default:
@@ -121,11 +494,260 @@ public class EndlessRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * Request the failed page again, e.g. from the retry button of the error footer
+     */
+    public void retryLoadMore() {
+        if (mScrollLoadType != ScrollType.ERROR) {
+            Log.w(TAG, "retryLoadMore() ignore, state " + mScrollLoadType);
+            return;
+        }
+        cancelAutoRetry();
+        showProgress();
+        dispatchLoadMore();
+    }
+
+    /**
+     * Automatic retries after {@link ScrollType#ERROR}, the scroll trigger stays off in that
+     * state so a failing backend is only hit on the backoff schedule
+     *
+     * @param backoff retry delays and attempt limit
+     */
+    public EndlessRecyclerView setRetryBackoff(@NonNull final RetryBackoff backoff) {
+        mRetryBackoff = backoff;
+        return this;
+    }
+
+    public RetryBackoff getRetryBackoff() {
+        return mRetryBackoff;
+    }
+
+    private void scheduleAutoRetry() {
+        cancelAutoRetry();
+        final long delay = mRetryBackoff.nextDelay();
+        if (delay == RetryBackoff.NO_RETRY) {
+            return;
+        }
+        mRetryAt = SystemClock.uptimeMillis() + delay;
+        if (isAttachedToWindow()) {
+            postDelayed(mAutoRetry, delay);
+        }
+    }
+
+    private void cancelAutoRetry() {
+        mRetryAt = -1;
+        removeCallbacks(mAutoRetry);
+    }
+
     public EndlessRecyclerView setOnLoadMoreListener(final OnLoadMoreListener listener) {
         mLoadMoreListener = listener;
         return this;
     }
 
+    /**
+     * Switch to cursor pagination, the listener receives the cursor of the last loaded page
+     * instead of the view state index being incremented
+     *
+     * @param listener listener, null to go back to page index mode
+     */
+    public EndlessRecyclerView setOnLoadMoreCursorListener(final OnLoadMoreCursorListener listener) {
+        mLoadMoreCursorListener = listener;
+        return this;
+    }
+
+    /**
+     * Page loaded in cursor mode, loading is DONE when there is no next cursor
+     *
+     * @param nextCursor cursor of the next page, null if this was the last page
+     */
+    public void setLoadedCursor(final String nextCursor) {
+        mViewState.setCursor(nextCursor);
+        setLoading(nextCursor == null ? ScrollType.DONE : ScrollType.IN_PROGRESS);
+    }
+
+    /**
+     * Enable load trigger from scroll velocity and measured page latency,
+     * the item threshold is still used as fallback
+     *
+     * @param predictive true/false
+     */
+    public EndlessRecyclerView setPredictiveLoad(final boolean predictive) {
+        mPredictiveLoad = predictive;
+        return this;
+    }
+
+    public LoadPredictor getLoadPredictor() {
+        return mLoadPredictor;
+    }
+
+    /**
+     * Route load more requests through a scheduler shared by several lists
+     *
+     * @param scheduler shared scheduler, null to load right away
+     */
+    public EndlessRecyclerView setLoadScheduler(final LoadScheduler scheduler) {
+        if (mLoadScheduler != null) {
+            mLoadScheduler.cancel(this);
+            mLoadScheduler.onLoadFinished(this);
+        }
+        mLoadScheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Preload content of items about to enter the viewport, pending preloads are cancelled on
+     * setAdapter and detach
+     *
+     * @param preloader preloader, null to disable
+     */
+    public EndlessRecyclerView setPreloader(final Preloader preloader) {
+        if (mPreloader != null) {
+            mPreloader.cancelAll();
+        }
+        mPreloader = preloader;
+        return this;
+    }
+
+    /**
+     * Request the pages where a fling will stop first, pages passed through during the fling
+     * are not fetched. Requires {@link #setPagedList(PagedList)}.
+     *
+     * @param enabled true/false
+     */
+    public EndlessRecyclerView setFlingPageSkipping(final boolean enabled) {
+        mFlingPageSkipping = enabled;
+        return this;
+    }
+
+    @Override
+    public boolean fling(final int velocityX, final int velocityY) {
+        final boolean flinging = super.fling(velocityX, velocityY);
+        if (flinging && mFlingPageSkipping && mPagedList != null && mAdapter != null) {
+            projectFlingTarget(velocityX, velocityY);
+        }
+        return flinging;
+    }
+
+    private void projectFlingTarget(final int velocityX, final int velocityY) {
+        final LayoutManager layoutManager = getLayoutManager();
+        final int childCount = layoutManager == null ? 0 : layoutManager.getChildCount();
+        if (childCount == 0) {
+            return;
+        }
+        final boolean vertical = layoutManager.canScrollVertically();
+        final int maxVelocity = getMaxFlingVelocity();
+        final int velocity = Math.max(-maxVelocity, Math.min(vertical ? velocityY : velocityX, maxVelocity));
+        if (mFlingScroller == null) {
+            mFlingScroller = new Scroller(getContext());
+        }
+        mFlingScroller.fling(0, 0, vertical ? 0 : velocity, vertical ? velocity : 0,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        final int distance = vertical ? mFlingScroller.getFinalY() : mFlingScroller.getFinalX();
+        mFlingScroller.forceFinished(true);
+        final int extent = vertical ? computeVerticalScrollExtent() : computeHorizontalScrollExtent();
+        final float itemExtent = (float) extent / childCount;
+        final int first = getRecyclerViewHelper(this).findFirstVisibleItemPosition();
+        if (first == NO_POSITION || itemExtent <= 0) {
+            return;
+        }
+        final int target = first - mAdapter.getHeaderCount() + (int) (distance / itemExtent);
+        mPagedList.setFlingTarget(target, target + childCount);
+    }
+
+    /**
+     * Keep only a window of pages of the given list in memory while scrolling
+     *
+     * @param pagedList list backing the wrapped adapter, null to disable
+     */
+    public EndlessRecyclerView setPagedList(final PagedList pagedList) {
+        mPagedList = pagedList;
+        if (pagedList != null) {
+            pagedList.setScrolling(getScrollState() != SCROLL_STATE_IDLE);
+        }
+        if (mAdapter != null) {
+            mAdapter.setPagedList(pagedList);
+        }
+        return this;
+    }
+
+    /**
+     * Placeholder mode: size the paged list from the total count and fetch only the pages
+     * of the visible window, so a jump deep into the list fetches the visible pages first and
+     * then the pages kept around them, not every page before it.
+     * Requires {@link #setPagedList(PagedList)}, the footer trigger is turned off.
+     *
+     * @param totalCount total number of items reported by the backend
+     * @param pageSize   items per page
+     */
+    public void setTotalCount(final int totalCount, final int pageSize) {
+        if (mPagedList == null) {
+            Log.w(TAG, "setTotalCount() ignore, no paged list");
+            return;
+        }
+        mPagedList.setTotalCount(totalCount, pageSize);
+        setLoading(ScrollType.DONE);
+        post(mPagedWindowUpdate);
+    }
+
+    public EndlessRecyclerView setOnLoadPreviousListener(final OnLoadPreviousListener listener) {
+        mLoadPreviousListener = listener;
+        return this;
+    }
+
+    public boolean isLoadingPrevious() {
+        return mPrevLoadType == ScrollType.IN_PROGRESS || mPrevLoadType == ScrollType.PENDING;
+    }
+
+    /**
+     * Record create and bind durations of the wrapped adapter per view type
+     *
+     * @param profiler bind profiler, null to disable
+     */
+    public EndlessRecyclerView setBindProfiler(final BindProfiler profiler) {
+        mBindProfiler = profiler;
+        if (mAdapter != null) {
+            mAdapter.setBindProfiler(profiler);
+        }
+        return this;
+    }
+
+    public BindProfiler getBindProfiler() {
+        return mBindProfiler;
+    }
+
+    /**
+     * Enable page size suggestions, see {@link #getSuggestedPageSize()}
+     *
+     * @param controller page size controller, null to disable
+     */
+    public EndlessRecyclerView setPageSizeController(final PageSizeController controller) {
+        mPageSizeController = controller;
+        if (mAdapter != null) {
+            mAdapter.setPageSizeController(controller);
+        }
+        return this;
+    }
+
+    /**
+     * Size to request for the next page, meant to be read from
+     * {@link OnLoadMoreListener#onLoadMore(EndlessRecyclerView)}
+     *
+     * @return suggested page size, or {@link PageSizeController#DEFAULT_MIN_PAGE_SIZE} without a controller
+     */
+    public int getSuggestedPageSize() {
+        if (mPageSizeController == null) {
+            return PageSizeController.DEFAULT_MIN_PAGE_SIZE;
+        }
+        final int wrappedCount = getWrappedItemCount();
+        final int childCount = getChildCount();
+        final LayoutManager layoutManager = getLayoutManager();
+        final boolean vertical = layoutManager == null || layoutManager.canScrollVertically();
+        final int extent = vertical ? computeVerticalScrollExtent() : computeHorizontalScrollExtent();
+        final float itemExtent = childCount == 0 ? 0 : (float) extent / childCount;
+        return mPageSizeController.suggest(wrappedCount == 0, mLoadPredictor.getVelocity(),
+                mLoadPredictor.getLatency(), itemExtent);
+    }
+
     public boolean isLoadingMore() {
         switch (mScrollLoadType) {
             case IN_PROGRESS:
@@ -138,9 +760,89 @@ public class EndlessRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * Loader whose outstanding requests are cancelled on setAdapter and detach
+     *
+     * @param pageLoader page loader, null to clear
+     */
+    public EndlessRecyclerView setPageLoader(final PageLoader pageLoader) {
+        mPageLoader = pageLoader;
+        return this;
+    }
+
+    public PageLoader getPageLoader() {
+        return mPageLoader;
+    }
+
+    private void cancelPageLoads() {
+        if (mPageLoader != null && mPageLoader.getInFlightCount() > 0) {
+            mPageLoader.cancelAll();
+            // cancelled fetches never call back, their pages have to be requested again
+            if (mPagedList != null) {
+                mPagedList.resetRequests();
+            }
+            if (mScrollLoadType == ScrollType.PENDING) {
+                onLoadDropped();
+            }
+        }
+        if (mPreloader != null) {
+            mPreloader.cancelAll();
+        }
+    }
+
+    public EndlessRecyclerView setOnLoadMetricsListener(final LoadMetrics.OnLoadMetricsListener listener) {
+        mLoadMetrics.setOnLoadMetricsListener(listener);
+        return this;
+    }
+
+    public LoadMetrics getLoadMetrics() {
+        return mLoadMetrics;
+    }
+
+    @Override
+    protected void onLayout(final boolean changed, final int l, final int t, final int r, final int b) {
+        super.onLayout(changed, l, t, r, b);
+        // no scroll event comes when a page does not fill the viewport, check once layout is done
+        if (!mFillCheckPosted && (canTriggerLoadMore() || mScrollLoadType == ScrollType.PENDING)) {
+            mFillCheckPosted = true;
+            post(mFillViewportCheck);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // re-attached lists, e.g. carousels recycled by an outer list, need the trigger back
+        removeOnScrollListener(mEndlessScrollListener);
+        addOnScrollListener(mEndlessScrollListener);
+        mLoadMetrics.onAttached(SystemClock.uptimeMillis());
+        getViewTreeObserver().addOnScrollChangedListener(mSchedulerScrollListener);
+        if (mLoadScheduler != null) {
+            mLoadScheduler.dispatch();
+        }
+        if (mRetryAt >= 0) {
+            postDelayed(mAutoRetry, Math.max(0, mRetryAt - SystemClock.uptimeMillis()));
+        }
+        if (mPagedList != null) {
+            // pages whose fetch was cancelled on detach are requested again
+            post(mPagedWindowUpdate);
+        }
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        removeCallbacks(mFillViewportCheck);
+        mFillCheckPosted = false;
+        // keep mRetryAt, the retry is posted again on attach
+        removeCallbacks(mAutoRetry);
+        removeCallbacks(mPagedWindowUpdate);
+        getViewTreeObserver().removeOnScrollChangedListener(mSchedulerScrollListener);
+        cancelPageLoads();
+        if (mLoadScheduler != null) {
+            mLoadScheduler.cancel(this);
+            mLoadScheduler.onLoadFinished(this);
+        }
         removeOnScrollListener(mEndlessScrollListener);
     }
 
@@ -157,6 +859,53 @@ public class EndlessRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * Current page index and scroll anchor, to be stored in a {@link PageCache}
+     *
+     * @return snapshot of the list position
+     */
+    public PageCache.Snapshot createSnapshot() {
+        int anchorPosition = 0;
+        int anchorOffset = 0;
+        final LayoutManager layoutManager = getLayoutManager();
+        if (layoutManager != null && layoutManager.getChildCount() > 0) {
+            final RecyclerViewHelper recyclerViewHelper = getRecyclerViewHelper(this);
+            final View anchor = recyclerViewHelper.findOneVisibleChild(0, layoutManager.getChildCount(), false, true);
+            if (anchor != null) {
+                final int headerCount = mAdapter == null ? 0 : mAdapter.getHeaderCount();
+                anchorPosition = Math.max(0, layoutManager.getPosition(anchor) - headerCount);
+                anchorOffset = recyclerViewHelper.getStartOffset(anchor);
+            }
+        }
+        return new PageCache.Snapshot(mViewState.getIndex(), anchorPosition, anchorOffset);
+    }
+
+    /**
+     * Restore page index and scroll anchor after cached pages were bound to the adapter
+     *
+     * @param snapshot snapshot read from a {@link PageCache}
+     */
+    public void restoreSnapshot(final PageCache.Snapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        mViewState.setIndex(snapshot.index);
+        final LayoutManager layoutManager = getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(snapshot.anchorPosition, snapshot.anchorOffset);
+        } else {
+            scrollToPosition(snapshot.anchorPosition);
+        }
+    }
+
+    @Override
+    public void setLayoutManager(final LayoutManager layout) {
+        super.setLayoutManager(layout);
+        if (mAdapter != null) {
+            mAdapter.setupSpanSizeLookup(layout);
+        }
+    }
+
     public EndlessRecyclerAdapter getAdapter() {
         return mAdapter;
     }
@@ -164,11 +913,25 @@ public class EndlessRecyclerView extends RecyclerView {
     @Override
     @SuppressWarnings("unchecked")
     public void setAdapter(final Adapter adapter) {
+        cancelPageLoads();
+        if (mAdapter != null) {
+            mAdapter.unregisterAdapterDataObserver(mAnchorObserver);
+        }
         if (adapter == null) {
             mAdapter = null;
             super.setAdapter(null);
         } else {
             mAdapter = new EndlessRecyclerAdapter(adapter, mViewState);
+            mAdapter.setOnRetryClickListener(new OnClickListener() {
+                @Override
+                public void onClick(final View v) {
+                    retryLoadMore();
+                }
+            });
+            mAdapter.setPageSizeController(mPageSizeController);
+            mAdapter.setBindProfiler(mBindProfiler);
+            mAdapter.setPagedList(mPagedList);
+            mAdapter.registerAdapterDataObserver(mAnchorObserver);
             super.setAdapter(mAdapter);
         }
     }
@@ -180,7 +943,8 @@ public class EndlessRecyclerView extends RecyclerView {
         FIRST_LOAD,
         IN_PROGRESS,
         PENDING,
-        DONE
+        DONE,
+        ERROR
     }
 
     /**
@@ -190,14 +954,31 @@ public class EndlessRecyclerView extends RecyclerView {
         void onLoadMore(final EndlessRecyclerView view);
     }
 
+    /**
+     * Interface callback listener load more with the cursor of the last loaded page
+     */
+    public interface OnLoadMoreCursorListener {
+        void onLoadMore(final EndlessRecyclerView view, final String cursor);
+    }
+
+    /**
+     * Interface callback listener load previous page
+     */
+    public interface OnLoadPreviousListener {
+        void onLoadPrevious(final EndlessRecyclerView view);
+    }
+
     /**
      * View state
      */
     public static class ViewState {
         private int mode;
         private int state;
+        private int headerState;
         private int threshold;
         private int index;
+        private int prevIndex;
+        private String cursor;
         private CharSequence text;
 
         public ViewState() {
@@ -207,8 +988,11 @@ public class EndlessRecyclerView extends RecyclerView {
         public ViewState(final ViewState s) {
             this.mode = s.mode;
             this.state = s.state;
+            this.headerState = s.headerState;
             this.threshold = s.threshold;
             this.index = s.index;
+            this.prevIndex = s.prevIndex;
+            this.cursor = s.cursor;
         }
 
         public ViewState copy() {
@@ -218,8 +1002,11 @@ public class EndlessRecyclerView extends RecyclerView {
         private void reset() {
             mode = MODE_AUTO;
             state = STATE_HIDE;
+            headerState = STATE_HIDE;
             threshold = DEFAULT_THRESHOLD;
             index = 0;
+            prevIndex = 0;
+            cursor = null;
         }
 
         public int getState() {
@@ -231,6 +1018,15 @@ public class EndlessRecyclerView extends RecyclerView {
             return this;
         }
 
+        public int getHeaderState() {
+            return headerState;
+        }
+
+        public ViewState setHeaderState(final int s) {
+            this.headerState = s;
+            return this;
+        }
+
         public int getMode() {
             return mode;
         }
@@ -239,11 +1035,38 @@ public class EndlessRecyclerView extends RecyclerView {
             return threshold;
         }
 
+        public int getIndex() {
+            return index;
+        }
+
+        public ViewState setIndex(final int i) {
+            this.index = i;
+            return this;
+        }
+
         public ViewState incIndex() {
             this.index++;
             return this;
         }
 
+        public String getCursor() {
+            return cursor;
+        }
+
+        public ViewState setCursor(final String c) {
+            this.cursor = c;
+            return this;
+        }
+
+        public int getPrevIndex() {
+            return prevIndex;
+        }
+
+        public ViewState incPrevIndex() {
+            this.prevIndex++;
+            return this;
+        }
+
         public CharSequence getText() {
             return text;
         }
@@ -257,8 +1080,11 @@ public class EndlessRecyclerView extends RecyclerView {
         public String toString() {
             return "ViewState{" +
                     "display=" + state +
+                    ", header=" + headerState +
                     ", mode=" + mode +
                     ", threshold=" + threshold +
+                    ", index=" + index +
+                    ", cursor=" + cursor +
                     '}';
         }
     }
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Histogram of non negative values in power of two buckets, backed by primitive counters so it
+ * can stay enabled in release builds. Not thread safe.
+ */
+public class Histogram {
+    private static final int BUCKET_COUNT = 32;
+
+    private final long[] mBuckets = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        mBuckets[bucketOf(v)]++;
+        mCount++;
+        mSum += v;
+        if (v > mMax) {
+            mMax = v;
+        }
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getSum() {
+        return mSum;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMean() {
+        return mCount == 0 ? 0 : mSum / mCount;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile
+     *
+     * @param percentile 0 - 100
+     * @return value estimate, 0 if empty
+     */
+    public long getPercentile(final float percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(mCount * percentile / 100f);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank && mBuckets[i] > 0) {
+                return Math.min(mMax, upperBound(i));
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * Number of values recorded in a bucket, bucket i holds values in [2^(i-1), 2^i)
+     *
+     * @param bucket bucket index
+     * @return recorded count
+     */
+    public long getBucketCount(final int bucket) {
+        return mBuckets[bucket];
+    }
+
+    public int getBucketSize() {
+        return BUCKET_COUNT;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+
+    private static int bucketOf(final long value) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(value);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static long upperBound(final int bucket) {
+        return (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{" +
+                "count=" + mCount +
+                ", mean=" + getMean() +
+                ", p50=" + getPercentile(50) +
+                ", p95=" + getPercentile(95) +
+                ", max=" + mMax +
+                '}';
+    }
+}
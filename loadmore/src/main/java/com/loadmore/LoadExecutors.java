@@ -0,0 +1,144 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executors shared by the default constructors. {@link PageLoader} fetches run on
+ * {@link #getDefault()}, {@link PageCache} writes and {@link PageDiffer} diffs run on a serial
+ * executor per instance backed by a separate I/O pool, so a slow network fetch never delays a
+ * disk write or a diff, and writes of one cache finish in the order they were issued. All threads
+ * are daemon threads that stop once idle, so objects held by short lived screens do not leak a
+ * thread each.
+ */
+public final class LoadExecutors {
+    public static final int THREAD_COUNT = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile Executor sDefault;
+    private static volatile Executor sIo;
+
+    private LoadExecutors() {
+    }
+
+    /**
+     * Pool running page fetches
+     */
+    public static Executor getDefault() {
+        if (sDefault == null) {
+            synchronized (LoadExecutors.class) {
+                if (sDefault == null) {
+                    sDefault = newPool("loadmore-");
+                }
+            }
+        }
+        return sDefault;
+    }
+
+    /**
+     * Pool running disk and diff work, separate from the fetches
+     */
+    public static Executor getIo() {
+        if (sIo == null) {
+            synchronized (LoadExecutors.class) {
+                if (sIo == null) {
+                    sIo = newPool("loadmore-io-");
+                }
+            }
+        }
+        return sIo;
+    }
+
+    /**
+     * Executor running its tasks one at a time in submission order on the I/O pool
+     *
+     * @return new serial executor
+     */
+    public static Executor newSerialExecutor() {
+        return new SerialExecutor(getIo());
+    }
+
+    private static Executor newPool(final String name) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Serializes tasks on top of a pool, the next task is handed to the pool once the previous
+     * one finished
+     */
+    private static class SerialExecutor implements Executor {
+        private final Executor mExecutor;
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+        private Runnable mActive;
+
+        SerialExecutor(final Executor executor) {
+            mExecutor = executor;
+        }
+
+        @Override
+        public synchronized void execute(final Runnable task) {
+            mTasks.offer(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        scheduleNext();
+                    }
+                }
+            });
+            if (mActive == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            mActive = mTasks.poll();
+            if (mActive != null) {
+                mExecutor.execute(mActive);
+            }
+        }
+    }
+
+    /**
+     * Named daemon threads
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+        private final String mName;
+
+        DaemonThreadFactory(final String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, mName + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Load performance counters of an {@link EndlessRecyclerView}: time to first page, fetch latency,
+ * stalls on the loading footer and page sizes. Durations are in milliseconds.
+ */
+public class LoadMetrics {
+    private final Histogram mFetchLatency = new Histogram();
+    private final Histogram mStallDuration = new Histogram();
+    private final Histogram mPageSize = new Histogram();
+    private long mTimeToFirstPage = -1;
+    private long mAttachTime = -1;
+    private long mRequestTime = -1;
+    private long mStallStart = -1;
+    private int mRequestItemCount;
+    private OnLoadMetricsListener mListener;
+
+    public LoadMetrics setOnLoadMetricsListener(final OnLoadMetricsListener listener) {
+        this.mListener = listener;
+        return this;
+    }
+
+    void onAttached(final long now) {
+        if (mAttachTime < 0) {
+            mAttachTime = now;
+        }
+    }
+
+    void onFirstPage(final long now, final int itemCount) {
+        if (mTimeToFirstPage >= 0 || mAttachTime < 0) {
+            return;
+        }
+        mTimeToFirstPage = now - mAttachTime;
+        mPageSize.record(itemCount);
+        if (mListener != null) {
+            mListener.onFirstPage(mTimeToFirstPage);
+            mListener.onPageLoaded(itemCount);
+        }
+    }
+
+    void onLoadRequested(final long now, final int itemCount) {
+        mRequestTime = now;
+        mRequestItemCount = itemCount;
+    }
+
+    void onLoadFinished(final long now, final int itemCount) {
+        onFooterHidden(now);
+        if (mRequestTime < 0) {
+            return;
+        }
+        final long latency = now - mRequestTime;
+        final int pageSize = itemCount - mRequestItemCount;
+        mRequestTime = -1;
+        mFetchLatency.record(latency);
+        mPageSize.record(pageSize);
+        if (mListener != null) {
+            mListener.onFetchLatency(latency);
+            mListener.onPageLoaded(pageSize);
+        }
+    }
+
+    void onFooterVisible(final long now) {
+        if (mStallStart < 0 && mRequestTime >= 0) {
+            mStallStart = now;
+        }
+    }
+
+    void onFooterHidden(final long now) {
+        if (mStallStart < 0) {
+            return;
+        }
+        final long stall = now - mStallStart;
+        mStallStart = -1;
+        mStallDuration.record(stall);
+        if (mListener != null) {
+            mListener.onStall(stall);
+        }
+    }
+
+    /**
+     * Time from attach to the first page, -1 until the first page arrived
+     *
+     * @return duration in milliseconds
+     */
+    public long getTimeToFirstPage() {
+        return mTimeToFirstPage;
+    }
+
+    public Histogram getFetchLatency() {
+        return mFetchLatency;
+    }
+
+    public Histogram getStallDuration() {
+        return mStallDuration;
+    }
+
+    public Histogram getPageSize() {
+        return mPageSize;
+    }
+
+    public boolean isStalled() {
+        return mStallStart >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadMetrics{" +
+                "timeToFirstPage=" + mTimeToFirstPage +
+                ", fetchLatency=" + mFetchLatency +
+                ", stall=" + mStallDuration +
+                ", pageSize=" + mPageSize +
+                '}';
+    }
+
+    /**
+     * Interface callback load metrics events, called on the main thread
+     */
+    public interface OnLoadMetricsListener {
+        void onFirstPage(final long durationMs);
+
+        void onFetchLatency(final long latencyMs);
+
+        void onStall(final long durationMs);
+
+        void onPageLoaded(final int itemCount);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Tracks scroll velocity and page load latency to decide when the next page should be requested
+ * so that it arrives before the viewport reaches the end of the list.
+ */
+public class LoadPredictor {
+    public static final long DEFAULT_LATENCY_MS = 500;
+    public static final float DEFAULT_SAFETY_FACTOR = 1.5f;
+    private static final float SMOOTHING = 0.3f;
+    private static final long VELOCITY_TIMEOUT_MS = 100;
+
+    private float mVelocity;
+    private long mLastScrollTime;
+    private float mLatency = DEFAULT_LATENCY_MS;
+    private long mRequestTime = -1;
+    private float mSafetyFactor = DEFAULT_SAFETY_FACTOR;
+
+    /**
+     * Record a scroll delta.
+     *
+     * @param delta pixels scrolled toward the end of the list
+     * @param now   current uptime in milliseconds
+     */
+    public void onScrolled(final int delta, final long now) {
+        final long elapsed = now - mLastScrollTime;
+        if (elapsed <= 0) {
+            // several deltas in one frame, no time to divide by, the velocity stays
+            return;
+        }
+        mLastScrollTime = now;
+        if (elapsed > VELOCITY_TIMEOUT_MS) {
+            mVelocity = 0;
+            return;
+        }
+        final float velocity = (float) delta / elapsed;
+        mVelocity = mVelocity + SMOOTHING * (velocity - mVelocity);
+    }
+
+    /**
+     * Reset the velocity, e.g. when the scroll settles
+     */
+    public void onScrollIdle() {
+        mVelocity = 0;
+    }
+
+    /**
+     * Mark the moment a page was requested.
+     *
+     * @param now current uptime in milliseconds
+     */
+    public void onLoadRequested(final long now) {
+        mRequestTime = now;
+    }
+
+    /**
+     * Mark the moment a requested page arrived, updating the latency estimate.
+     *
+     * @param now current uptime in milliseconds
+     */
+    public void onLoadFinished(final long now) {
+        if (mRequestTime < 0) {
+            return;
+        }
+        final long latency = now - mRequestTime;
+        mRequestTime = -1;
+        mLatency = mLatency + SMOOTHING * (latency - mLatency);
+    }
+
+    /**
+     * Whether the next page should be requested now.
+     *
+     * @param remaining pixels left before the end of the content is reached
+     * @return true if the viewport would reach the end before a page could arrive
+     */
+    public boolean shouldLoad(final int remaining) {
+        if (mVelocity <= 0) {
+            return false;
+        }
+        return remaining <= mVelocity * mLatency * mSafetyFactor;
+    }
+
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    public long getLatency() {
+        return (long) mLatency;
+    }
+
+    public LoadPredictor setSafetyFactor(final float factor) {
+        this.mSafetyFactor = factor;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadPredictor{" +
+                "velocity=" + mVelocity +
+                ", latency=" + mLatency +
+                '}';
+    }
+}
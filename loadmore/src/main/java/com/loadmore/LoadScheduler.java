@@ -0,0 +1,138 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordinates load more requests of many {@link EndlessRecyclerView}, e.g. carousels nested in a
+ * vertical list. Loads are capped globally and queued requests are dispatched by on-screen
+ * visibility, then by distance to the end of the list. Requests of lists that are not visible are
+ * deferred, requests of lists detached from the window are dropped. Must be used from the main
+ * thread.
+ */
+public class LoadScheduler {
+    public static final int DEFAULT_MAX_CONCURRENT = 3;
+
+    private final List<EndlessRecyclerView> mQueue = new ArrayList<>();
+    private final List<EndlessRecyclerView> mRunning = new ArrayList<>();
+    private final Rect mRect = new Rect();
+    private int mMaxConcurrent = DEFAULT_MAX_CONCURRENT;
+
+    public LoadScheduler setMaxConcurrent(final int maxConcurrent) {
+        this.mMaxConcurrent = Math.max(1, maxConcurrent);
+        return this;
+    }
+
+    public int getRunningCount() {
+        return mRunning.size();
+    }
+
+    public int getQueuedCount() {
+        return mQueue.size();
+    }
+
+    void enqueue(final EndlessRecyclerView view) {
+        if (!mQueue.contains(view) && !mRunning.contains(view)) {
+            mQueue.add(view);
+        }
+        dispatch();
+    }
+
+    void onLoadFinished(final EndlessRecyclerView view) {
+        if (mRunning.remove(view)) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Drop the queued request of a list, e.g. when it leaves the window
+     *
+     * @param view endless list
+     */
+    void cancel(final EndlessRecyclerView view) {
+        if (mQueue.remove(view)) {
+            view.onLoadDropped();
+        }
+    }
+
+    /**
+     * Remove the queued request of a list that left the pending state on its own
+     *
+     * @param view endless list
+     */
+    void remove(final EndlessRecyclerView view) {
+        mQueue.remove(view);
+    }
+
+    boolean isQueued(final EndlessRecyclerView view) {
+        return mQueue.contains(view);
+    }
+
+    /**
+     * Dispatch queued requests, called when lists attach, finish loading or scroll into view
+     */
+    public void dispatch() {
+        while (mRunning.size() < mMaxConcurrent) {
+            final EndlessRecyclerView next = pickNext();
+            if (next == null) {
+                return;
+            }
+            mQueue.remove(next);
+            mRunning.add(next);
+            next.performLoadMore();
+        }
+    }
+
+    private EndlessRecyclerView pickNext() {
+        EndlessRecyclerView best = null;
+        float bestVisibility = 0;
+        int bestRows = Integer.MAX_VALUE;
+        for (int i = mQueue.size() - 1; i >= 0; i--) {
+            // a list that is no longer pending must not take a slot that nothing would release
+            if (!mQueue.get(i).isLoadPending()) {
+                mQueue.remove(i);
+            }
+        }
+        for (EndlessRecyclerView view : mQueue) {
+            final float visibility = getVisibleFraction(view);
+            if (visibility <= 0) {
+                continue;
+            }
+            final int rows = view.getRowsToEnd();
+            if (visibility > bestVisibility || (visibility == bestVisibility && rows < bestRows)) {
+                best = view;
+                bestVisibility = visibility;
+                bestRows = rows;
+            }
+        }
+        return best;
+    }
+
+    private float getVisibleFraction(final EndlessRecyclerView view) {
+        if (!view.isAttachedToWindow() || view.getVisibility() != EndlessRecyclerView.VISIBLE) {
+            return 0;
+        }
+        final long area = (long) view.getWidth() * view.getHeight();
+        if (area == 0 || !view.getGlobalVisibleRect(mRect)) {
+            return 0;
+        }
+        return (float) ((long) mRect.width() * mRect.height()) / area;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Set of primitive longs with open addressing and linear probing, no boxing per entry.
+ * Not thread safe.
+ */
+public class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long EMPTY = 0;
+
+    private long[] mKeys;
+    private int mSize;
+    private boolean mHasEmptyKey;
+    private int mResizeAt;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(final int expectedSize) {
+        allocate(tableSizeFor((int) (Math.max(expectedSize, 2) / LOAD_FACTOR)));
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key key
+     * @return true if the key was not in the set
+     */
+    public boolean add(final long key) {
+        if (key == EMPTY) {
+            if (mHasEmptyKey) {
+                return false;
+            }
+            mHasEmptyKey = true;
+            mSize++;
+            return true;
+        }
+        final int mask = mKeys.length - 1;
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = mKeys[slot]) != EMPTY) {
+            if (existing == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mKeys[slot] = key;
+        mSize++;
+        if (mSize >= mResizeAt) {
+            rehash(mKeys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(final long key) {
+        if (key == EMPTY) {
+            return mHasEmptyKey;
+        }
+        final int mask = mKeys.length - 1;
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = mKeys[slot]) != EMPTY) {
+            if (existing == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = EMPTY;
+        }
+        mSize = 0;
+        mHasEmptyKey = false;
+    }
+
+    private void rehash(final int capacity) {
+        final long[] old = mKeys;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = mix(key) & mask;
+                while (mKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                mKeys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        mKeys = new long[capacity];
+        mResizeAt = Math.max(1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int tableSizeFor(final int size) {
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
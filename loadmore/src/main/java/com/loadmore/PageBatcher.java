@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.view.Choreographer;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues page results and appends them once per frame, as a single range insert on the wrapped
+ * adapter followed by a single load state change. Must be used from the main thread.
+ *
+ * @param <T> item type
+ */
+public class PageBatcher<T> {
+    private final EndlessRecyclerView mView;
+    private final List<T> mItems;
+    private final RecyclerView.Adapter mAdapter;
+    private final List<T> mPending = new ArrayList<>();
+    private EndlessRecyclerView.ScrollType mPendingState;
+    private boolean mScheduled;
+    private int mFlushCount;
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(final long frameTimeNanos) {
+            mScheduled = false;
+            flush();
+        }
+    };
+
+    /**
+     * @param view    endless list
+     * @param items   list backing the wrapped adapter
+     * @param adapter wrapped adapter
+     */
+    public PageBatcher(final EndlessRecyclerView view, final List<T> items, final RecyclerView.Adapter adapter) {
+        mView = view;
+        mItems = items;
+        mAdapter = adapter;
+    }
+
+    /**
+     * Queue a loaded page
+     *
+     * @param page  loaded items
+     * @param state load state to apply after the items, usually IN_PROGRESS or DONE
+     */
+    public void submit(final List<T> page, final EndlessRecyclerView.ScrollType state) {
+        mPending.addAll(page);
+        mPendingState = state;
+        if (!mScheduled) {
+            mScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Apply queued pages now
+     */
+    public void flush() {
+        if (mScheduled) {
+            mScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+        if (mPendingState == null) {
+            return;
+        }
+        mFlushCount++;
+        if (!mPending.isEmpty()) {
+            final int start = mItems.size();
+            mItems.addAll(mPending);
+            mAdapter.notifyItemRangeInserted(start, mPending.size());
+            mPending.clear();
+        }
+        final EndlessRecyclerView.ScrollType state = mPendingState;
+        mPendingState = null;
+        mView.setLoading(state);
+    }
+
+    /**
+     * Drop queued pages
+     */
+    public void cancel() {
+        if (mScheduled) {
+            mScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+        mPending.clear();
+        mPendingState = null;
+    }
+
+    /**
+     * Number of batched updates applied so far
+     *
+     * @return applied batch count
+     */
+    public int getFlushCount() {
+        return mFlushCount;
+    }
+}
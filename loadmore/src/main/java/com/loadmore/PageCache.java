@@ -0,0 +1,393 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * On-disk cache of loaded pages and list position, used to rebind a list right away on the
+ * next launch. Pages are stored one file per page in a compact binary format. Once the directory
+ * exceeds the size cap the highest pages are evicted first, so the cache always holds a prefix
+ * that {@link #getPages()} can restore. Files are written to a temporary file and renamed, a crash
+ * mid-write never leaves a truncated page. Writes run in order on a serial background executor,
+ * reads are synchronous.
+ *
+ * @param <T> item type
+ */
+public class PageCache<T> {
+    public static final String TAG = PageCache.class.getSimpleName();
+    public static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+    private static final int MAGIC = 0x454c5043;
+    private static final int VERSION = 1;
+    private static final String PAGE_PREFIX = "page_";
+    private static final String STATE_FILE = "state";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final ItemSerializer<T> mSerializer;
+    private final Executor mExecutor;
+    private long mMaxBytes = DEFAULT_MAX_BYTES;
+
+    public PageCache(final File directory, final ItemSerializer<T> serializer) {
+        this(directory, serializer, LoadExecutors.newSerialExecutor());
+    }
+
+    /**
+     * @param executor runs the writes, must run them one at a time in order or a stale page
+     *                 can overwrite a newer one
+     */
+    public PageCache(final File directory, final ItemSerializer<T> serializer, final Executor executor) {
+        mDirectory = directory;
+        mSerializer = serializer;
+        mExecutor = executor;
+    }
+
+    public PageCache<T> setMaxBytes(final long maxBytes) {
+        this.mMaxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Write a page in background
+     *
+     * @param page  page index
+     * @param items page items
+     */
+    public void putPage(final int page, final List<T> items) {
+        final List<T> copy = new ArrayList<>(items);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                writePage(page, copy);
+            }
+        });
+    }
+
+    /**
+     * Read a page
+     *
+     * @param page page index
+     * @return cached items, or null if the page is not cached
+     */
+    public synchronized List<T> getPage(final int page) {
+        final File file = pageFile(page);
+        if (!file.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                file.delete();
+                return null;
+            }
+            final int count = in.readInt();
+            final List<T> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(mSerializer.read(in));
+            }
+            return items;
+        } catch (IOException e) {
+            Log.w(TAG, "getPage() failed, page " + page, e);
+            file.delete();
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Read all cached pages from 0 until the first missing one
+     *
+     * @return cached pages in order
+     */
+    public List<List<T>> getPages() {
+        final List<List<T>> pages = new ArrayList<>();
+        List<T> page;
+        while ((page = getPage(pages.size())) != null) {
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    /**
+     * Write the list position in background
+     *
+     * @param snapshot view state index and scroll anchor
+     */
+    public void putSnapshot(final Snapshot snapshot) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeSnapshot(snapshot);
+            }
+        });
+    }
+
+    /**
+     * Read the list position, clamped to the pages {@link #getPages()} restores
+     *
+     * @return snapshot, or null if there is none or no page to restore it on
+     */
+    public synchronized Snapshot getSnapshot() {
+        final File file = new File(mDirectory, STATE_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            return clampToPrefix(new Snapshot(in.readInt(), in.readInt(), in.readInt()));
+        } catch (IOException e) {
+            Log.w(TAG, "getSnapshot() failed", e);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    public synchronized void clear() {
+        final File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private synchronized void writePage(final int page, final List<T> items) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.w(TAG, "writePage() ignore, cannot create " + mDirectory);
+            return;
+        }
+        final File file = pageFile(page);
+        final File temp = new File(mDirectory, file.getName() + TEMP_SUFFIX);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(items.size());
+            for (T item : items) {
+                mSerializer.write(out, item);
+            }
+            out.close();
+            out = null;
+            commit(temp, file);
+        } catch (IOException e) {
+            Log.w(TAG, "writePage() failed, page " + page, e);
+            closeQuietly(out);
+            out = null;
+            temp.delete();
+        } finally {
+            closeQuietly(out);
+        }
+        trimToSize();
+    }
+
+    private synchronized void writeSnapshot(final Snapshot snapshot) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            return;
+        }
+        final File temp = new File(mDirectory, STATE_FILE + TEMP_SUFFIX);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.index);
+            out.writeInt(snapshot.anchorPosition);
+            out.writeInt(snapshot.anchorOffset);
+            out.close();
+            out = null;
+            commit(temp, new File(mDirectory, STATE_FILE));
+        } catch (IOException e) {
+            Log.w(TAG, "writeSnapshot() failed", e);
+            closeQuietly(out);
+            out = null;
+            temp.delete();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private void trimToSize() {
+        final File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        final List<File> pages = new ArrayList<>();
+        for (File file : files) {
+            if (pageIndexOf(file) >= 0) {
+                pages.add(file);
+                total += file.length();
+            }
+        }
+        if (total <= mMaxBytes) {
+            return;
+        }
+        // evict from the tail rather than least recently used: a restore reads pages from 0 on and
+        // a gap would make getPages() stop before the pages after it, getSnapshot() clamps to it
+        Collections.sort(pages, new Comparator<File>() {
+            @Override
+            public int compare(final File a, final File b) {
+                return Integer.compare(pageIndexOf(b), pageIndexOf(a));
+            }
+        });
+        for (File file : pages) {
+            if (total <= mMaxBytes) {
+                break;
+            }
+            total -= file.length();
+            file.delete();
+        }
+    }
+
+    /**
+     * Pages the snapshot points into may have been evicted by the size cap after it was written,
+     * the index and anchor must not go past the cached prefix
+     */
+    private Snapshot clampToPrefix(final Snapshot snapshot) {
+        int pages = 0;
+        int items = 0;
+        int count;
+        while (pages <= snapshot.index && (count = readItemCount(pageFile(pages))) >= 0) {
+            items += count;
+            pages++;
+        }
+        if (pages == 0) {
+            return null;
+        }
+        if (pages > snapshot.index) {
+            return snapshot;
+        }
+        if (snapshot.anchorPosition < items) {
+            return new Snapshot(pages - 1, snapshot.anchorPosition, snapshot.anchorOffset);
+        }
+        return new Snapshot(pages - 1, Math.max(0, items - 1), 0);
+    }
+
+    private static int readItemCount(final File file) {
+        if (!file.exists()) {
+            return -1;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return -1;
+            }
+            return in.readInt();
+        } catch (IOException e) {
+            return -1;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Replace the target with a fully written temporary file
+     */
+    private static void commit(final File temp, final File target) throws IOException {
+        if (!temp.renameTo(target)) {
+            // renameTo does not replace an existing file on every file system
+            target.delete();
+            if (!temp.renameTo(target)) {
+                throw new IOException("cannot rename " + temp + " to " + target);
+            }
+        }
+    }
+
+    private static int pageIndexOf(final File file) {
+        final String name = file.getName();
+        if (!name.startsWith(PAGE_PREFIX) || name.endsWith(TEMP_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(PAGE_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private File pageFile(final int page) {
+        return new File(mDirectory, PAGE_PREFIX + page);
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // ignore
+        }
+    }
+
+    /**
+     * Item serializer
+     */
+    public interface ItemSerializer<T> {
+        void write(final DataOutputStream out, final T item) throws IOException;
+
+        T read(final DataInputStream in) throws IOException;
+    }
+
+    /**
+     * List position saved with the pages
+     */
+    public static class Snapshot {
+        public final int index;
+        public final int anchorPosition;
+        public final int anchorOffset;
+
+        public Snapshot(final int index, final int anchorPosition, final int anchorOffset) {
+            this.index = index;
+            this.anchorPosition = anchorPosition;
+            this.anchorOffset = anchorOffset;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "index=" + index +
+                    ", anchorPosition=" + anchorPosition +
+                    ", anchorOffset=" + anchorOffset +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops items of incoming pages that were already delivered, keyed by a long id. Useful with
+ * offset pagination where rows repeat across page boundaries after upstream inserts.
+ *
+ * @param <T> item type
+ */
+public class PageDeduplicator<T> {
+    private final KeyExtractor<T> mKeyExtractor;
+    private final LongHashSet mSeen;
+    private int mDroppedCount;
+
+    public PageDeduplicator(final KeyExtractor<T> keyExtractor) {
+        this(keyExtractor, 256);
+    }
+
+    public PageDeduplicator(final KeyExtractor<T> keyExtractor, final int expectedSize) {
+        mKeyExtractor = keyExtractor;
+        mSeen = new LongHashSet(expectedSize);
+    }
+
+    /**
+     * Filter a page, remembering the keys of the items kept
+     *
+     * @param page incoming items
+     * @return items not seen before, in the same order
+     */
+    public List<T> filter(final List<T> page) {
+        final List<T> result = new ArrayList<>(page.size());
+        for (T item : page) {
+            if (mSeen.add(mKeyExtractor.getKey(item))) {
+                result.add(item);
+            } else {
+                mDroppedCount++;
+            }
+        }
+        return result;
+    }
+
+    public boolean isSeen(final long key) {
+        return mSeen.contains(key);
+    }
+
+    /**
+     * Number of duplicate items dropped so far
+     *
+     * @return dropped count
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Forget all keys, e.g. on refresh
+     */
+    public void reset() {
+        mSeen.clear();
+        mDroppedCount = 0;
+    }
+
+    /**
+     * Item key
+     */
+    public interface KeyExtractor<T> {
+        long getKey(final T item);
+    }
+}
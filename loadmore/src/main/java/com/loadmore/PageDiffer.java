@@ -0,0 +1,281 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Merges a refreshed or replaced page into the list backing a wrapped adapter. The diff is
+ * computed on a background executor, then the list is updated and the minimal insert, remove,
+ * move and change operations are dispatched to the wrapped adapter on the main thread.
+ * {@link EndlessRecyclerAdapter} forwards them shifted by its header slot, the footer stays
+ * after the last item. If the list is changed elsewhere while a diff runs, e.g. by a
+ * {@link PageBatcher} flush or a removal, the merge is computed again against the current list
+ * instead of dispatching stale positions. Merges of separate ranges are applied independently,
+ * a merge only supersedes earlier merges overlapping its range. All methods must be called from
+ * the main thread.
+ *
+ * @param <T> item type
+ */
+public class PageDiffer<T> {
+    public static final String TAG = PageDiffer.class.getSimpleName();
+
+    private final List<T> mItems;
+    private final RecyclerView.Adapter mAdapter;
+    private final ItemComparator<T> mComparator;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // merges not applied yet, a new merge only supersedes the ones whose range it overlaps
+    private final List<Merge> mPending = new ArrayList<>();
+
+    public PageDiffer(final List<T> items, final RecyclerView.Adapter adapter, final ItemComparator<T> comparator) {
+        this(items, adapter, comparator, LoadExecutors.newSerialExecutor());
+    }
+
+    public PageDiffer(final List<T> items, final RecyclerView.Adapter adapter, final ItemComparator<T> comparator,
+                      final Executor executor) {
+        mItems = items;
+        mAdapter = adapter;
+        mComparator = comparator;
+        mExecutor = executor;
+    }
+
+    /**
+     * Replace the whole list, e.g. on refresh
+     *
+     * @param newItems new items
+     * @param callback called on the main thread once applied, may be null
+     */
+    public void submitList(final List<T> newItems, final Runnable callback) {
+        merge(0, mItems.size(), true, newItems, callback);
+    }
+
+    /**
+     * Replace a range of the list, e.g. a page that was loaded again
+     *
+     * @param start    position of the first replaced item
+     * @param count    number of replaced items
+     * @param newItems items replacing the range
+     * @param callback called on the main thread once applied, may be null. Not called if the
+     *                 replaced items were removed from the list while diffing, or if a later
+     *                 merge overlapping the range replaced it first.
+     */
+    public void replaceRange(final int start, final int count, final List<T> newItems, final Runnable callback) {
+        merge(start, count, false, newItems, callback);
+    }
+
+    private void merge(final int start, final int count, final boolean wholeList, final List<T> newItems,
+                       final Runnable callback) {
+        for (int i = mPending.size() - 1; i >= 0; i--) {
+            if (mPending.get(i).overlaps(start, count, wholeList)) {
+                mPending.remove(i).mSuperseded = true;
+            }
+        }
+        submit(new Merge(start, count, wholeList), newItems, callback);
+    }
+
+    private void submit(final Merge merge, final List<T> newItems, final Runnable callback) {
+        mPending.add(merge);
+        final int start = merge.mStart;
+        final int count = merge.mCount;
+        final boolean wholeList = merge.mWholeList;
+        final List<T> oldRange = new ArrayList<>(mItems.subList(start, start + count));
+        final List<T> newRange = new ArrayList<>(newItems);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                    @Override
+                    public int getOldListSize() {
+                        return oldRange.size();
+                    }
+
+                    @Override
+                    public int getNewListSize() {
+                        return newRange.size();
+                    }
+
+                    @Override
+                    public boolean areItemsTheSame(final int oldPosition, final int newPosition) {
+                        return mComparator.areItemsTheSame(oldRange.get(oldPosition), newRange.get(newPosition));
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(final int oldPosition, final int newPosition) {
+                        return mComparator.areContentsTheSame(oldRange.get(oldPosition), newRange.get(newPosition));
+                    }
+                });
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (merge.mSuperseded) {
+                            return;
+                        }
+                        mPending.remove(merge);
+                        if (wholeList ? mItems.size() != count || !isRangeUnchanged(0, oldRange)
+                                : !isRangeUnchanged(start, oldRange)) {
+                            redo(merge, oldRange, newRange, callback);
+                            return;
+                        }
+                        final List<T> range = mItems.subList(start, start + count);
+                        range.clear();
+                        range.addAll(newRange);
+                        result.dispatchUpdatesTo(new OffsetUpdateCallback(start));
+                        if (callback != null) {
+                            callback.run();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * The list was changed elsewhere while diffing, merge again against its current content.
+     * The merge keeps its place, it does not supersede merges started after it.
+     */
+    private void redo(final Merge merge, final List<T> oldRange, final List<T> newRange,
+                      final Runnable callback) {
+        if (merge.mWholeList) {
+            submit(new Merge(0, mItems.size(), true), newRange, callback);
+            return;
+        }
+        final int start = locateRange(oldRange);
+        if (start < 0) {
+            Log.w(TAG, "replaceRange() dropped, the replaced items were changed while diffing");
+            return;
+        }
+        submit(new Merge(start, oldRange.size(), false), newRange, callback);
+    }
+
+    /**
+     * Whether the list still holds the diffed items at the same positions
+     */
+    private boolean isRangeUnchanged(final int start, final List<T> oldRange) {
+        if (start < 0 || start + oldRange.size() > mItems.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldRange.size(); i++) {
+            if (mItems.get(start + i) != oldRange.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int locateRange(final List<T> oldRange) {
+        if (oldRange.isEmpty()) {
+            return -1;
+        }
+        final T first = oldRange.get(0);
+        for (int i = 0; i < mItems.size(); i++) {
+            if (mItems.get(i) == first && isRangeUnchanged(i, oldRange)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Drop any merge still being computed
+     */
+    public void cancel() {
+        for (Merge merge : mPending) {
+            merge.mSuperseded = true;
+        }
+        mPending.clear();
+    }
+
+    /**
+     * Range of a merge in flight
+     */
+    private static class Merge {
+        final int mStart;
+        final int mCount;
+        final boolean mWholeList;
+        boolean mSuperseded;
+
+        Merge(final int start, final int count, final boolean wholeList) {
+            mStart = start;
+            mCount = count;
+            mWholeList = wholeList;
+        }
+
+        /**
+         * Whether a merge of the given range replaces this one, empty ranges are insertions
+         * and overlap a range starting or ending at the same position
+         */
+        boolean overlaps(final int start, final int count, final boolean wholeList) {
+            if (wholeList || mWholeList) {
+                return true;
+            }
+            if (count == 0 || mCount == 0) {
+                return start <= mStart + mCount && mStart <= start + count;
+            }
+            return start < mStart + mCount && mStart < start + count;
+        }
+    }
+
+    /**
+     * Dispatch updates of a sub range to the adapter
+     */
+    private class OffsetUpdateCallback implements ListUpdateCallback {
+        private final int mOffset;
+
+        OffsetUpdateCallback(final int offset) {
+            mOffset = offset;
+        }
+
+        @Override
+        public void onInserted(final int position, final int count) {
+            mAdapter.notifyItemRangeInserted(position + mOffset, count);
+        }
+
+        @Override
+        public void onRemoved(final int position, final int count) {
+            mAdapter.notifyItemRangeRemoved(position + mOffset, count);
+        }
+
+        @Override
+        public void onMoved(final int fromPosition, final int toPosition) {
+            mAdapter.notifyItemMoved(fromPosition + mOffset, toPosition + mOffset);
+        }
+
+        @Override
+        public void onChanged(final int position, final int count, final Object payload) {
+            mAdapter.notifyItemRangeChanged(position + mOffset, count, payload);
+        }
+    }
+
+    /**
+     * Item identity and content comparison
+     */
+    public interface ItemComparator<T> {
+        boolean areItemsTheSame(final T oldItem, final T newItem);
+
+        boolean areContentsTheSame(final T oldItem, final T newItem);
+    }
+}
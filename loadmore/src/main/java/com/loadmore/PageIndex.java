@@ -0,0 +1,125 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import java.util.Arrays;
+
+/**
+ * Start offsets of the pages of a {@link PagedList}, looked up on every adapter call through
+ * {@link PagedList#isPlaceholder(int)}. Lookups are O(1) with a uniform page size and a binary
+ * search otherwise.
+ */
+public final class PageIndex {
+    // start position of each page, mStarts[mPageCount] is the item count
+    private int[] mStarts = new int[16];
+    private int mPageCount;
+    private int mUniformPageSize;
+
+    public int size() {
+        return mStarts[mPageCount];
+    }
+
+    public int getPageCount() {
+        return mPageCount;
+    }
+
+    public int getPageStart(final int page) {
+        return mStarts[Math.max(0, Math.min(page, mPageCount))];
+    }
+
+    public int getPageSize(final int page) {
+        return mStarts[page + 1] - mStarts[page];
+    }
+
+    /**
+     * Page index containing the given position
+     *
+     * @param position item position
+     * @return page index, or -1 if out of range
+     */
+    public int getPageOf(final int position) {
+        if (position < 0 || position >= mStarts[mPageCount]) {
+            return -1;
+        }
+        if (mUniformPageSize > 0) {
+            return position / mUniformPageSize;
+        }
+        // last page starting at or before the position, skips empty pages
+        int low = 0;
+        int high = mPageCount - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (mStarts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Append a page
+     *
+     * @param size item count of the page
+     */
+    public void append(final int size) {
+        ensureCapacity(mPageCount + 1);
+        mUniformPageSize = 0;
+        mStarts[mPageCount + 1] = mStarts[mPageCount] + size;
+        mPageCount++;
+    }
+
+    /**
+     * Split a total count in pages of the same size, the last page may be smaller
+     *
+     * @param totalCount item count, not negative
+     * @param pageSize   items per page, positive
+     */
+    public void setUniform(final int totalCount, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("page size " + pageSize);
+        }
+        if (totalCount < 0) {
+            throw new IllegalArgumentException("total count " + totalCount);
+        }
+        final int pageCount = totalCount / pageSize + (totalCount % pageSize == 0 ? 0 : 1);
+        ensureCapacity(pageCount);
+        for (int page = 0; page < pageCount; page++) {
+            mStarts[page + 1] = (int) Math.min(totalCount, (long) (page + 1) * pageSize);
+        }
+        mPageCount = pageCount;
+        mUniformPageSize = pageSize;
+    }
+
+    public void clear() {
+        mPageCount = 0;
+        mUniformPageSize = 0;
+    }
+
+    /**
+     * Room for the given number of pages
+     *
+     * @param pageCount page count
+     * @return capacity in pages, at least pageCount
+     */
+    public int ensureCapacity(final int pageCount) {
+        if (pageCount + 1 > mStarts.length) {
+            mStarts = Arrays.copyOf(mStarts, Math.max(pageCount + 1, mStarts.length * 2));
+        }
+        return mStarts.length - 1;
+    }
+}
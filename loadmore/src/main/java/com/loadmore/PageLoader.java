@@ -0,0 +1,143 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs {@link PageSource} fetches on an executor with at most one request per key in flight,
+ * results are delivered on the main thread. All methods must be called from the main thread.
+ *
+ * @param <K> page key type
+ * @param <T> item type
+ */
+public class PageLoader<K, T> {
+    private final PageSource<K, T> mSource;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Map<K, FutureTask<List<T>>> mInFlight = new HashMap<>();
+
+    public PageLoader(final PageSource<K, T> source) {
+        this(source, LoadExecutors.getDefault());
+    }
+
+    public PageLoader(final PageSource<K, T> source, final Executor executor) {
+        mSource = source;
+        mExecutor = executor;
+    }
+
+    /**
+     * Request a page, ignored if the same key is already in flight
+     *
+     * @param key      page key
+     * @param callback called on the main thread unless the request is cancelled
+     * @return true if a new request was started
+     */
+    public boolean load(final K key, final Callback<K, T> callback) {
+        if (mInFlight.containsKey(key)) {
+            return false;
+        }
+        final FutureTask<List<T>> task = new FutureTask<List<T>>(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return mSource.loadPage(key);
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                final FutureTask<List<T>> self = this;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver(key, self, callback);
+                    }
+                });
+            }
+        };
+        mInFlight.put(key, task);
+        mExecutor.execute(task);
+        return true;
+    }
+
+    public boolean isLoading(final K key) {
+        return mInFlight.containsKey(key);
+    }
+
+    public int getInFlightCount() {
+        return mInFlight.size();
+    }
+
+    /**
+     * Cancel a pending request, its callback will not be called
+     *
+     * @param key page key
+     */
+    public void cancel(final K key) {
+        final FutureTask<List<T>> task = mInFlight.remove(key);
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Cancel all pending requests
+     */
+    public void cancelAll() {
+        for (K key : new ArrayList<>(mInFlight.keySet())) {
+            cancel(key);
+        }
+    }
+
+    private void deliver(final K key, final FutureTask<List<T>> task, final Callback<K, T> callback) {
+        if (mInFlight.get(key) != task) {
+            return;
+        }
+        mInFlight.remove(key);
+        final List<T> items;
+        try {
+            items = task.get();
+        } catch (ExecutionException e) {
+            callback.onPageError(key, e.getCause());
+            return;
+        } catch (InterruptedException e) {
+            callback.onPageError(key, e);
+            return;
+        }
+        callback.onPageLoaded(key, items);
+    }
+
+    /**
+     * Interface callback page result
+     */
+    public interface Callback<K, T> {
+        void onPageLoaded(final K key, final List<T> items);
+
+        void onPageError(final K key, final Throwable error);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Suggests the size of the next page request. The first page is kept small for a fast first
+ * paint, later pages grow to cover the items scrolled through while a page is in flight, and are
+ * capped so that binding a page stays within a time budget.
+ */
+public class PageSizeController {
+    public static final int DEFAULT_MIN_PAGE_SIZE = 10;
+    public static final int DEFAULT_MAX_PAGE_SIZE = 100;
+    public static final long DEFAULT_BIND_BUDGET_MS = 48;
+    private static final float SMOOTHING = 0.2f;
+    private static final float COVERAGE_FACTOR = 2f;
+
+    private int mMinPageSize = DEFAULT_MIN_PAGE_SIZE;
+    private int mMaxPageSize = DEFAULT_MAX_PAGE_SIZE;
+    private long mBindBudgetNanos = DEFAULT_BIND_BUDGET_MS * 1000000L;
+    private float mBindCostNanos;
+
+    public PageSizeController setMinPageSize(final int size) {
+        this.mMinPageSize = Math.max(1, size);
+        return this;
+    }
+
+    public PageSizeController setMaxPageSize(final int size) {
+        this.mMaxPageSize = size;
+        return this;
+    }
+
+    /**
+     * Max total bind time of one page
+     *
+     * @param budgetMs budget in milliseconds
+     */
+    public PageSizeController setBindBudget(final long budgetMs) {
+        this.mBindBudgetNanos = budgetMs * 1000000L;
+        return this;
+    }
+
+    public int getMinPageSize() {
+        return mMinPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return mMaxPageSize;
+    }
+
+    /**
+     * Record the duration of one item bind
+     *
+     * @param nanos bind duration in nanoseconds
+     */
+    public void onBindMeasured(final long nanos) {
+        if (mBindCostNanos == 0) {
+            mBindCostNanos = nanos;
+        } else {
+            mBindCostNanos = mBindCostNanos + SMOOTHING * (nanos - mBindCostNanos);
+        }
+    }
+
+    public long getBindCostNanos() {
+        return (long) mBindCostNanos;
+    }
+
+    /**
+     * Suggested size of the next page
+     *
+     * @param firstPage  whether nothing is loaded yet
+     * @param velocity   scroll velocity toward the end in pixels per millisecond
+     * @param latencyMs  recent fetch latency
+     * @param itemExtent average item size along the scroll axis in pixels
+     * @return page size within [min, max]
+     */
+    public int suggest(final boolean firstPage, final float velocity, final long latencyMs, final float itemExtent) {
+        final int max = Math.max(mMinPageSize, mMaxPageSize);
+        if (firstPage) {
+            return mMinPageSize;
+        }
+        int size = mMinPageSize;
+        if (velocity > 0 && itemExtent > 0) {
+            final float consumed = velocity * latencyMs / itemExtent;
+            size = Math.max(size, (int) Math.ceil(consumed * COVERAGE_FACTOR));
+        }
+        if (mBindCostNanos > 0) {
+            size = Math.min(size, Math.max(mMinPageSize, (int) (mBindBudgetNanos / mBindCostNanos)));
+        }
+        return Math.min(size, max);
+    }
+
+    @Override
+    public String toString() {
+        return "PageSizeController{" +
+                "min=" + mMinPageSize +
+                ", max=" + mMaxPageSize +
+                ", bindCost=" + (long) mBindCostNanos +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import java.util.List;
+
+/**
+ * Source of pages keyed by page index or cursor. {@link #loadPage(Object)} is called on a
+ * background thread by {@link PageLoader}.
+ *
+ * @param <K> page key type
+ * @param <T> item type
+ */
+public interface PageSource<K, T> {
+    List<T> loadPage(final K key) throws Exception;
+}
@@ -0,0 +1,385 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Backing list split into pages, only pages around the viewport are kept in memory.
+ * Evicted pages keep their item count, {@link #get(int)} returns null for them until
+ * they are loaded again, so adapter positions stay stable.
+ *
+ * @param <T> item type
+ */
+public class PagedList<T> implements PositionMath.Placeholders {
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    private final List<List<T>> mPages = new ArrayList<>();
+    private final PageIndex mIndex = new PageIndex();
+    private boolean[] mRequested = new boolean[16];
+    // pages loaded or requested, the only ones eviction has to look at
+    private int[] mLivePages = new int[16];
+    private int mLiveCount;
+    private int mMaxPages = DEFAULT_MAX_PAGES;
+    private int mFlingStartPage = -1;
+    private int mFlingEndPage = -1;
+    private boolean mScrolling;
+    private RecyclerView.Adapter mAdapter;
+    private OnPageRequestListener mPageRequestListener;
+    private OnPageCancelListener mPageCancelListener;
+
+    /**
+     * Pages kept in memory when one page is visible, (maxPages - 1) / 2 pages are kept on each
+     * side of the visible pages
+     *
+     * @param maxPages page count
+     */
+    public PagedList<T> setMaxPages(final int maxPages) {
+        this.mMaxPages = Math.max(1, maxPages);
+        return this;
+    }
+
+    public int getMaxPages() {
+        return mMaxPages;
+    }
+
+    /**
+     * Adapter notified when pages are appended or reloaded
+     *
+     * @param adapter adapter backed by this list
+     */
+    public PagedList<T> bindAdapter(final RecyclerView.Adapter adapter) {
+        this.mAdapter = adapter;
+        return this;
+    }
+
+    public PagedList<T> setOnPageRequestListener(final OnPageRequestListener listener) {
+        this.mPageRequestListener = listener;
+        return this;
+    }
+
+    /**
+     * Listener told when a requested page is evicted before it arrived, its fetch can be cancelled
+     *
+     * @param listener cancel listener
+     */
+    public PagedList<T> setOnPageCancelListener(final OnPageCancelListener listener) {
+        this.mPageCancelListener = listener;
+        return this;
+    }
+
+    public int size() {
+        return mIndex.size();
+    }
+
+    public int getPageCount() {
+        return mIndex.getPageCount();
+    }
+
+    /**
+     * Returns the item at the given position
+     *
+     * @param position adapter position
+     * @return the item, or null if its page is evicted
+     */
+    public T get(final int position) {
+        final int page = getPageOf(position);
+        if (page < 0) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size());
+        }
+        final List<T> items = mPages.get(page);
+        return items == null ? null : items.get(position - mIndex.getPageStart(page));
+    }
+
+    @Override
+    public boolean isPlaceholder(final int position) {
+        final int page = getPageOf(position);
+        return page >= 0 && mPages.get(page) == null;
+    }
+
+    public boolean isPageLoaded(final int page) {
+        return page < mIndex.getPageCount() && mPages.get(page) != null;
+    }
+
+    /**
+     * Adapter position of the first item of a page
+     *
+     * @param page page index
+     * @return start position
+     */
+    public int getPageStart(final int page) {
+        return mIndex.getPageStart(page);
+    }
+
+    /**
+     * Page index containing the given position
+     *
+     * @param position adapter position
+     * @return page index, or -1 if out of range
+     */
+    public int getPageOf(final int position) {
+        return mIndex.getPageOf(position);
+    }
+
+    /**
+     * Append the next page
+     *
+     * @param items loaded items
+     */
+    public void addPage(final List<T> items) {
+        final int start = size();
+        final int page = mIndex.getPageCount();
+        ensureRequestedCapacity(page + 1);
+        mPages.add(new ArrayList<>(items));
+        mRequested[page] = false;
+        mIndex.append(items.size());
+        addLivePage(page);
+        if (mAdapter != null && !items.isEmpty()) {
+            mAdapter.notifyItemRangeInserted(start, items.size());
+        }
+    }
+
+    /**
+     * Put back a page that was evicted or fill a placeholder page. The page must have the same
+     * item count as before.
+     *
+     * @param page  page index
+     * @param items loaded items
+     */
+    public void setPage(final int page, final List<T> items) {
+        if (page == mIndex.getPageCount()) {
+            addPage(items);
+            return;
+        }
+        final int size = mIndex.getPageSize(page);
+        if (items.size() != size) {
+            throw new IllegalArgumentException("page " + page + " expects " + size + " items, got " + items.size());
+        }
+        if (!isLive(page)) {
+            addLivePage(page);
+        }
+        mPages.set(page, new ArrayList<>(items));
+        mRequested[page] = false;
+        if (mAdapter != null) {
+            mAdapter.notifyItemRangeChanged(mIndex.getPageStart(page), size);
+        }
+    }
+
+    /**
+     * Allow a page to be requested again, e.g. after its fetch failed
+     *
+     * @param page page index
+     */
+    public void onPageFailed(final int page) {
+        if (page < mIndex.getPageCount()) {
+            mRequested[page] = false;
+        }
+    }
+
+    /**
+     * Forget outstanding page requests, e.g. after their fetches were cancelled. Pages still
+     * missing are requested again by the next {@link #onVisibleRange(int, int)}.
+     */
+    public void resetRequests() {
+        Arrays.fill(mRequested, false);
+    }
+
+    /**
+     * Size the list from a total count reported by the backend, every page starts as
+     * placeholders and is requested once it comes into the visible window.
+     *
+     * @param totalCount total number of items
+     * @param pageSize   items per page, the last page may be smaller
+     */
+    public void setTotalCount(final int totalCount, final int pageSize) {
+        final int oldSize = size();
+        mIndex.setUniform(totalCount, pageSize);
+        final int pageCount = mIndex.getPageCount();
+        mPages.clear();
+        mLiveCount = 0;
+        ensureRequestedCapacity(pageCount);
+        for (int page = 0; page < pageCount; page++) {
+            mPages.add(null);
+            mRequested[page] = false;
+        }
+        if (mAdapter != null) {
+            if (oldSize > 0) {
+                mAdapter.notifyItemRangeRemoved(0, oldSize);
+            }
+            if (totalCount > 0) {
+                mAdapter.notifyItemRangeInserted(0, totalCount);
+            }
+        }
+    }
+
+    public void clear() {
+        final int size = size();
+        mIndex.clear();
+        mPages.clear();
+        mLiveCount = 0;
+        if (mAdapter != null && size > 0) {
+            mAdapter.notifyItemRangeRemoved(0, size);
+        }
+    }
+
+    /**
+     * Update the visible range, evicting pages outside the window and requesting
+     * evicted pages that came back into it. The window spans the visible pages plus
+     * (maxPages - 1) / 2 pages on each side, only pages in it or in memory are visited.
+     * While scrolling pages are only evicted, see {@link #setScrolling(boolean)}.
+     *
+     * @param firstPosition first visible position
+     * @param lastPosition  last visible position
+     */
+    public void onVisibleRange(final int firstPosition, final int lastPosition) {
+        final int firstPage = getPageOf(firstPosition);
+        if (firstPage < 0) {
+            return;
+        }
+        final int lastPage = Math.max(firstPage, getPageOf(lastPosition));
+        final int margin = (mMaxPages - 1) / 2;
+        final int windowStart = Math.max(0, firstPage - margin);
+        final int windowEnd = Math.min(mIndex.getPageCount() - 1, lastPage + margin);
+        final boolean flinging = mFlingStartPage >= 0;
+        int kept = 0;
+        for (int i = 0; i < mLiveCount; i++) {
+            final int page = mLivePages[i];
+            final boolean flingTarget = flinging && page >= mFlingStartPage && page <= mFlingEndPage;
+            if (mPages.get(page) == null && !mRequested[page]) {
+                // failed request, tracked again when requested
+                continue;
+            }
+            if (flingTarget || (page >= windowStart && page <= windowEnd)) {
+                mLivePages[kept++] = page;
+            } else {
+                final boolean inFlight = mPages.get(page) == null;
+                mPages.set(page, null);
+                mRequested[page] = false;
+                if (inFlight && mPageCancelListener != null) {
+                    mPageCancelListener.onPageCancelled(this, page);
+                }
+            }
+        }
+        mLiveCount = kept;
+        if (flinging || mScrolling) {
+            return;
+        }
+        // visible pages first, a jump deep into the list fetches what is on screen before the margin
+        for (int page = firstPage; page <= lastPage; page++) {
+            requestPage(page);
+        }
+        for (int page = lastPage + 1; page <= windowEnd; page++) {
+            requestPage(page);
+        }
+        for (int page = firstPage - 1; page >= windowStart; page--) {
+            requestPage(page);
+        }
+    }
+
+    /**
+     * Request the pages where a fling will stop before the ones it passes through. Until
+     * {@link #clearFlingTarget()} pages are only evicted, pages scrolled past are not requested.
+     *
+     * @param firstPosition projected first visible position
+     * @param lastPosition  projected last visible position
+     */
+    public void setFlingTarget(final int firstPosition, final int lastPosition) {
+        final int size = size();
+        if (size == 0) {
+            return;
+        }
+        final int first = getPageOf(Math.max(0, Math.min(firstPosition, size - 1)));
+        final int last = getPageOf(Math.max(0, Math.min(lastPosition, size - 1)));
+        final int half = (mMaxPages - 1) / 2;
+        mFlingStartPage = Math.max(0, first - half);
+        mFlingEndPage = Math.min(mIndex.getPageCount() - 1, Math.max(last, mFlingStartPage + mMaxPages - 1));
+        requestPage(first);
+        for (int page = mFlingStartPage; page <= mFlingEndPage; page++) {
+            requestPage(page);
+        }
+    }
+
+    /**
+     * Defer page requests while the list scrolls, a drag across many pages would otherwise
+     * request every page it passes. Pages are requested by the first
+     * {@link #onVisibleRange(int, int)} after the scroll settled.
+     *
+     * @param scrolling true while dragging or settling
+     */
+    public void setScrolling(final boolean scrolling) {
+        mScrolling = scrolling;
+    }
+
+    /**
+     * End of a fling, the window around the visible range is filled again
+     */
+    public void clearFlingTarget() {
+        mFlingStartPage = -1;
+        mFlingEndPage = -1;
+    }
+
+    private void requestPage(final int page) {
+        if (mPages.get(page) == null && !mRequested[page]) {
+            mRequested[page] = true;
+            if (!isLive(page)) {
+                addLivePage(page);
+            }
+            if (mPageRequestListener != null) {
+                mPageRequestListener.onPageRequested(this, page);
+            }
+        }
+    }
+
+    private boolean isLive(final int page) {
+        for (int i = 0; i < mLiveCount; i++) {
+            if (mLivePages[i] == page) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addLivePage(final int page) {
+        if (mLiveCount == mLivePages.length) {
+            mLivePages = Arrays.copyOf(mLivePages, mLiveCount * 2);
+        }
+        mLivePages[mLiveCount++] = page;
+    }
+
+    private void ensureRequestedCapacity(final int pageCount) {
+        if (pageCount > mRequested.length) {
+            mRequested = Arrays.copyOf(mRequested, mIndex.ensureCapacity(pageCount));
+        }
+    }
+
+    /**
+     * Interface callback listener reload an evicted page
+     */
+    public interface OnPageRequestListener {
+        void onPageRequested(final PagedList list, final int page);
+    }
+
+    /**
+     * Interface callback listener cancel the fetch of an evicted page
+     */
+    public interface OnPageCancelListener {
+        void onPageCancelled(final PagedList list, final int page);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Position math shared by the scroll trigger and the adapter wrapper.
+ */
+public final class PositionMath {
+    public static final int NO_INDEX = -1;
+    public static final int SLOT_ITEM = 0;
+    public static final int SLOT_HEADER = 1;
+    public static final int SLOT_FOOTER = 2;
+    public static final int SLOT_PLACEHOLDER = 3;
+
+    private PositionMath() {
+    }
+
+    /**
+     * Item count threshold check of the load more trigger.
+     *
+     * @param totalItemCount   adapter item count
+     * @param visibleItemCount attached child count
+     * @param firstVisibleItem first visible adapter position
+     * @param threshold        items left before the end
+     * @return true if the next page should be loaded
+     */
+    public static boolean isThresholdReached(final int totalItemCount, final int visibleItemCount,
+                                             final int firstVisibleItem, final int threshold) {
+        return (totalItemCount - visibleItemCount) <= (firstVisibleItem + threshold);
+    }
+
+    /**
+     * Slot of an adapter position in the wrapper
+     *
+     * @param position     wrapper position
+     * @param headerShown  whether the header slot is present
+     * @param footerShown  whether the footer slot is present
+     * @param wrappedCount wrapped adapter item count
+     * @return {@link #SLOT_HEADER}, {@link #SLOT_FOOTER} or {@link #SLOT_ITEM}
+     */
+    public static int slotOf(final int position, final boolean headerShown, final boolean footerShown,
+                             final int wrappedCount) {
+        if (headerShown && position == 0) {
+            return SLOT_HEADER;
+        }
+        if (footerShown && position - (headerShown ? 1 : 0) == wrappedCount) {
+            return SLOT_FOOTER;
+        }
+        return SLOT_ITEM;
+    }
+
+    /**
+     * Slot of an adapter position in the wrapper, wrapped items not loaded yet are placeholders
+     *
+     * @param position     wrapper position
+     * @param headerShown  whether the header slot is present
+     * @param footerShown  whether the footer slot is present
+     * @param wrappedCount wrapped adapter item count
+     * @param placeholders placeholder lookup by wrapped position, null if there are none
+     * @return {@link #SLOT_HEADER}, {@link #SLOT_FOOTER}, {@link #SLOT_PLACEHOLDER} or {@link #SLOT_ITEM}
+     */
+    public static int slotOf(final int position, final boolean headerShown, final boolean footerShown,
+                             final int wrappedCount, final Placeholders placeholders) {
+        final int slot = slotOf(position, headerShown, footerShown, wrappedCount);
+        if (slot == SLOT_ITEM && placeholders != null && placeholders.isPlaceholder(position - (headerShown ? 1 : 0))) {
+            return SLOT_PLACEHOLDER;
+        }
+        return slot;
+    }
+
+    /**
+     * Index of the first child in [fromIndex, toIndex) that is visible in [start, end).
+     *
+     * @param bounds                 child start/end lookup
+     * @param fromIndex              first child index to check
+     * @param toIndex                child index to stop at, may be lower than fromIndex
+     * @param start                  start of the visible area
+     * @param end                    end of the visible area
+     * @param completelyVisible      whether the child must be fully visible
+     * @param acceptPartiallyVisible whether to fall back to a partially visible child
+     * @return child index or {@link #NO_INDEX}
+     */
+    public static int findOneVisible(final ChildBounds bounds, final int fromIndex, final int toIndex,
+                                     final int start, final int end, final boolean completelyVisible,
+                                     final boolean acceptPartiallyVisible) {
+        final int next = toIndex > fromIndex ? 1 : -1;
+        int partiallyVisible = NO_INDEX;
+        for (int i = fromIndex; i != toIndex; i += next) {
+            final int childStart = bounds.getChildStart(i);
+            final int childEnd = bounds.getChildEnd(i);
+            if (childStart < end && childEnd > start) {
+                if (completelyVisible) {
+                    if (childStart >= start && childEnd <= end) {
+                        return i;
+                    } else if (acceptPartiallyVisible && partiallyVisible == NO_INDEX) {
+                        partiallyVisible = i;
+                    }
+                } else {
+                    return i;
+                }
+            }
+        }
+        return partiallyVisible;
+    }
+
+    /**
+     * Child bounds along the scroll axis
+     */
+    public interface ChildBounds {
+        int getChildStart(final int index);
+
+        int getChildEnd(final int index);
+    }
+
+    /**
+     * Child bounds read through one child fetch per index, the start and end reads of an index
+     * share it. Call {@link #reset()} after each scan so no child is held on to.
+     *
+     * @param <C> child type
+     */
+    public abstract static class ChildCache<C> implements ChildBounds {
+        private int mIndex = -1;
+        private C mChild;
+
+        protected abstract C getChild(final int index);
+
+        protected abstract int getStart(final C child);
+
+        protected abstract int getEnd(final C child);
+
+        public final C childAt(final int index) {
+            if (index != mIndex) {
+                mIndex = index;
+                mChild = getChild(index);
+            }
+            return mChild;
+        }
+
+        public final void reset() {
+            mIndex = -1;
+            mChild = null;
+        }
+
+        @Override
+        public final int getChildStart(final int index) {
+            return getStart(childAt(index));
+        }
+
+        @Override
+        public final int getChildEnd(final int index) {
+            return getEnd(childAt(index));
+        }
+    }
+
+    /**
+     * Wrapped positions whose item is not loaded
+     */
+    public interface Placeholders {
+        boolean isPlaceholder(final int position);
+    }
+}
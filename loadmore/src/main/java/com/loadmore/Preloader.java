@@ -0,0 +1,182 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+/**
+ * Asks an {@link OnPreloadListener} to warm secondary content (images, details) of the items about
+ * to enter the viewport, in scroll direction and up to a lookahead. At most a fixed number of
+ * preloads run at once, queued and running preloads are cancelled when the direction reverses and
+ * queued positions the viewport already passed are dropped. Positions are kept in primitive
+ * arrays, nothing is allocated per scroll frame. Must be used from the main thread.
+ */
+public class Preloader {
+    public static final int DEFAULT_LOOKAHEAD = 10;
+    public static final int DEFAULT_MAX_CONCURRENT = 3;
+
+    private final OnPreloadListener mListener;
+    private int mLookahead = DEFAULT_LOOKAHEAD;
+    private int mMaxConcurrent = DEFAULT_MAX_CONCURRENT;
+    // ring buffer of queued positions, never holds more than the lookahead
+    private int[] mQueue = new int[ringSizeFor(DEFAULT_LOOKAHEAD)];
+    private int mQueueHead;
+    private int mQueueSize;
+    private int[] mInFlight = new int[DEFAULT_MAX_CONCURRENT];
+    private int mInFlightCount;
+    private int mDirection;
+    private int mEdge = -1;
+
+    public Preloader(final OnPreloadListener listener) {
+        mListener = listener;
+    }
+
+    public Preloader setLookahead(final int lookahead) {
+        cancelAll();
+        this.mLookahead = Math.max(0, lookahead);
+        mQueue = new int[ringSizeFor(mLookahead)];
+        return this;
+    }
+
+    public Preloader setMaxConcurrent(final int maxConcurrent) {
+        cancelAll();
+        this.mMaxConcurrent = Math.max(1, maxConcurrent);
+        mInFlight = new int[mMaxConcurrent];
+        return this;
+    }
+
+    /**
+     * Update with the visible range after a scroll
+     *
+     * @param firstPosition first visible item position
+     * @param lastPosition  last visible item position
+     * @param delta         scrolled distance, positive toward the end
+     * @param itemCount     number of items
+     */
+    public void onScrolled(final int firstPosition, final int lastPosition, final int delta, final int itemCount) {
+        if (delta == 0 || itemCount == 0) {
+            return;
+        }
+        final int direction = delta > 0 ? 1 : -1;
+        if (direction != mDirection) {
+            cancelAll();
+            mDirection = direction;
+            mEdge = direction > 0 ? lastPosition : firstPosition;
+        }
+        if (direction > 0) {
+            final int end = Math.min(itemCount - 1, lastPosition + mLookahead);
+            trimQueue(lastPosition + 1, end);
+            for (int position = Math.max(mEdge + 1, lastPosition + 1); position <= end; position++) {
+                enqueue(position);
+                mEdge = position;
+            }
+        } else {
+            final int end = Math.max(0, firstPosition - mLookahead);
+            trimQueue(end, firstPosition - 1);
+            for (int position = Math.min(mEdge - 1, firstPosition - 1); position >= end; position--) {
+                enqueue(position);
+                mEdge = position;
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Called by the listener when a preload finished
+     *
+     * @param position item position passed to {@link OnPreloadListener#onPreload(int)}
+     */
+    public void onPreloadDone(final int position) {
+        for (int i = 0; i < mInFlightCount; i++) {
+            if (mInFlight[i] == position) {
+                mInFlight[i] = mInFlight[--mInFlightCount];
+                dispatch();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cancel queued and running preloads
+     */
+    public void cancelAll() {
+        mQueueHead = 0;
+        mQueueSize = 0;
+        while (mInFlightCount > 0) {
+            mListener.onPreloadCancelled(mInFlight[--mInFlightCount]);
+        }
+        mDirection = 0;
+        mEdge = -1;
+    }
+
+    public int getInFlightCount() {
+        return mInFlightCount;
+    }
+
+    public int getQueuedCount() {
+        return mQueueSize;
+    }
+
+    private void dispatch() {
+        while (mInFlightCount < mMaxConcurrent && mQueueSize > 0) {
+            final int position = mQueue[mQueueHead];
+            mQueueHead = (mQueueHead + 1) & (mQueue.length - 1);
+            mQueueSize--;
+            mInFlight[mInFlightCount++] = position;
+            mListener.onPreload(position);
+        }
+    }
+
+    private void enqueue(final int position) {
+        if (mQueueSize == mQueue.length) {
+            // cannot happen after trimQueue, keep the newest positions if it does
+            mQueueHead = (mQueueHead + 1) & (mQueue.length - 1);
+            mQueueSize--;
+        }
+        mQueue[(mQueueHead + mQueueSize) & (mQueue.length - 1)] = position;
+        mQueueSize++;
+    }
+
+    /**
+     * Drop queued positions outside [from, to], i.e. the ones the viewport already passed
+     */
+    private void trimQueue(final int from, final int to) {
+        final int mask = mQueue.length - 1;
+        int kept = 0;
+        for (int i = 0; i < mQueueSize; i++) {
+            final int position = mQueue[(mQueueHead + i) & mask];
+            if (position >= from && position <= to) {
+                mQueue[(mQueueHead + kept) & mask] = position;
+                kept++;
+            }
+        }
+        mQueueSize = kept;
+    }
+
+    private static int ringSizeFor(final int lookahead) {
+        return Integer.highestOneBit(Math.max(1, lookahead) * 2 - 1);
+    }
+
+    /**
+     * Interface callback preload item content
+     */
+    public interface OnPreloadListener {
+        /**
+         * Start loading content of an item, call {@link Preloader#onPreloadDone(int)} once done
+         */
+        void onPreload(final int position);
+
+        void onPreloadCancelled(final int position);
+    }
+}
@@ -17,20 +17,59 @@ package com.loadmore;
 
 import android.view.View;
 
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.OrientationHelper;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 /**
- * RecyclerView position helper class for any LayoutManager.
+ * RecyclerView position helper class for any LayoutManager. An instance can be kept and reused
+ * across scroll callbacks, see {@link #attach(RecyclerView)}.
  */
 public class RecyclerViewHelper {
 
-    final RecyclerView recyclerView;
-    final RecyclerView.LayoutManager layoutManager;
+    RecyclerView recyclerView;
+    RecyclerView.LayoutManager layoutManager;
+    private OrientationHelper orientationHelper;
+    private boolean vertical;
+    private int[] spanPositions;
+    private final PositionMath.ChildCache<View> childBounds = new PositionMath.ChildCache<View>() {
+        @Override
+        protected View getChild(final int index) {
+            return layoutManager.getChildAt(index);
+        }
+
+        @Override
+        protected int getStart(final View child) {
+            return orientationHelper.getDecoratedStart(child);
+        }
+
+        @Override
+        protected int getEnd(final View child) {
+            return orientationHelper.getDecoratedEnd(child);
+        }
+    };
 
     public RecyclerViewHelper(RecyclerView recycler) {
-        this.recyclerView = recycler;
-        this.layoutManager = recyclerView.getLayoutManager();
+        attach(recycler);
+    }
+
+    /**
+     * Point this helper to the given recycler view, the cached orientation helper is only
+     * rebuilt when the layout manager or its orientation changed.
+     *
+     * @param recycler recycler view to track
+     * @return this helper
+     */
+    public RecyclerViewHelper attach(RecyclerView recycler) {
+        final RecyclerView.LayoutManager manager = recycler.getLayoutManager();
+        if (recyclerView != recycler || layoutManager != manager) {
+            recyclerView = recycler;
+            layoutManager = manager;
+            orientationHelper = null;
+        }
+        return this;
     }
 
     /**
@@ -50,6 +89,9 @@ public class RecyclerViewHelper {
      * there aren't any visible items.
      */
     public int findFirstVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        }
         final View child = findOneVisibleChild(0, layoutManager.getChildCount(), false, true);
         return child == null ? RecyclerView.NO_POSITION : recyclerView.getChildAdapterPosition(child);
     }
@@ -63,6 +105,9 @@ public class RecyclerViewHelper {
      */
     @SuppressWarnings("unused")
     public int findFirstCompletelyVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findFirstCompletelyVisibleItemPosition();
+        }
         final View child = findOneVisibleChild(0, layoutManager.getChildCount(), true, false);
         return child == null ? RecyclerView.NO_POSITION : recyclerView.getChildAdapterPosition(child);
     }
@@ -74,8 +119,10 @@ public class RecyclerViewHelper {
      * @return The adapter position of the last visible view or {@link RecyclerView#NO_POSITION} if
      * there aren't any visible items
      */
-    @SuppressWarnings("unused")
     public int findLastVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        }
         final View child = findOneVisibleChild(layoutManager.getChildCount() - 1, -1, false, true);
         return child == null ? RecyclerView.NO_POSITION : recyclerView.getChildAdapterPosition(child);
     }
@@ -89,39 +136,79 @@ public class RecyclerViewHelper {
      */
     @SuppressWarnings("unused")
     public int findLastCompletelyVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findLastCompletelyVisibleItemPosition();
+        }
         final View child = findOneVisibleChild(layoutManager.getChildCount() - 1, -1, true, false);
         return child == null ? RecyclerView.NO_POSITION : recyclerView.getChildAdapterPosition(child);
     }
 
+    /**
+     * Returns the number of rows after the last visible one. Rows are counted by span group on a
+     * {@link GridLayoutManager} and by span count on a {@link StaggeredGridLayoutManager}, where
+     * the column reaching furthest into the data decides.
+     *
+     * @return rows left before the end, or -1 if there aren't any visible items
+     */
+    public int getRowsAfterLastVisible() {
+        final int lastItem = getItemCount() - 1;
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            final StaggeredGridLayoutManager staggered = (StaggeredGridLayoutManager) layoutManager;
+            final int spanCount = staggered.getSpanCount();
+            if (spanPositions == null || spanPositions.length != spanCount) {
+                spanPositions = new int[spanCount];
+            }
+            staggered.findLastVisibleItemPositions(spanPositions);
+            int last = RecyclerView.NO_POSITION;
+            for (int position : spanPositions) {
+                last = Math.max(last, position);
+            }
+            return last == RecyclerView.NO_POSITION ? -1 : (lastItem - last) / spanCount;
+        }
+        final int last = findLastVisibleItemPosition();
+        if (last == RecyclerView.NO_POSITION) {
+            return -1;
+        }
+        if (layoutManager instanceof GridLayoutManager) {
+            final GridLayoutManager grid = (GridLayoutManager) layoutManager;
+            final GridLayoutManager.SpanSizeLookup lookup = grid.getSpanSizeLookup();
+            final int spanCount = grid.getSpanCount();
+            return lookup.getSpanGroupIndex(lastItem, spanCount) - lookup.getSpanGroupIndex(last, spanCount);
+        }
+        return lastItem - last;
+    }
+
+    /**
+     * Returns the distance between the start of the child and the start of the visible area.
+     *
+     * @param child attached child view
+     * @return start offset in pixels, negative if the child is partially scrolled out
+     */
+    public int getStartOffset(View child) {
+        final OrientationHelper helper = getOrientationHelper();
+        return helper.getDecoratedStart(child) - helper.getStartAfterPadding();
+    }
+
     View findOneVisibleChild(int fromIndex, int toIndex, boolean completelyVisible,
                              boolean acceptPartiallyVisible) {
-        OrientationHelper helper;
-        if (layoutManager.canScrollVertically()) {
-            helper = OrientationHelper.createVerticalHelper(layoutManager);
-        } else {
-            helper = OrientationHelper.createHorizontalHelper(layoutManager);
-        }
+        final OrientationHelper helper = getOrientationHelper();
+        final int index = PositionMath.findOneVisible(childBounds, fromIndex, toIndex,
+                helper.getStartAfterPadding(), helper.getEndAfterPadding(), completelyVisible, acceptPartiallyVisible);
+        final View child = index == PositionMath.NO_INDEX ? null : childBounds.childAt(index);
+        childBounds.reset();
+        return child;
+    }
 
-        final int start = helper.getStartAfterPadding();
-        final int end = helper.getEndAfterPadding();
-        final int next = toIndex > fromIndex ? 1 : -1;
-        View partiallyVisible = null;
-        for (int i = fromIndex; i != toIndex; i += next) {
-            final View child = layoutManager.getChildAt(i);
-            final int childStart = helper.getDecoratedStart(child);
-            final int childEnd = helper.getDecoratedEnd(child);
-            if (childStart < end && childEnd > start) {
-                if (completelyVisible) {
-                    if (childStart >= start && childEnd <= end) {
-                        return child;
-                    } else if (acceptPartiallyVisible && partiallyVisible == null) {
-                        partiallyVisible = child;
-                    }
-                } else {
-                    return child;
-                }
+    private OrientationHelper getOrientationHelper() {
+        final boolean canScrollVertically = layoutManager.canScrollVertically();
+        if (orientationHelper == null || vertical != canScrollVertically) {
+            vertical = canScrollVertically;
+            if (canScrollVertically) {
+                orientationHelper = OrientationHelper.createVerticalHelper(layoutManager);
+            } else {
+                orientationHelper = OrientationHelper.createHorizontalHelper(layoutManager);
             }
         }
-        return partiallyVisible;
+        return orientationHelper;
     }
-}
\ No newline at end of file
+}
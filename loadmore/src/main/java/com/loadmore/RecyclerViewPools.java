@@ -0,0 +1,54 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Recycled view pools shared by several {@link EndlessRecyclerView}, e.g. tabs of a pager.
+ * Lists sharing a pool must use wrapped adapters with the same view types.
+ */
+public final class RecyclerViewPools {
+    public static final int DEFAULT_MAX_SCRAP = 5;
+
+    private RecyclerViewPools() {
+    }
+
+    /**
+     * Create a pool with one footer and one header holder per list
+     *
+     * @param listCount number of lists sharing the pool
+     * @return shared pool
+     */
+    public static RecyclerView.RecycledViewPool createShared(final int listCount) {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER, listCount);
+        pool.setMaxRecycledViews(EndlessRecyclerAdapter.VIEW_TYPE_HEADER, listCount);
+        return pool;
+    }
+
+    /**
+     * Share one pool between lists
+     *
+     * @param pool  shared pool
+     * @param views lists using the pool
+     */
+    public static void share(final RecyclerView.RecycledViewPool pool, final EndlessRecyclerView... views) {
+        for (EndlessRecyclerView view : views) {
+            view.setRecycledViewPool(pool);
+        }
+    }
+}
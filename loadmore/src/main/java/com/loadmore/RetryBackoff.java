@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import java.util.Random;
+
+/**
+ * Delays of automatic retries after a failed page load: exponential backoff with jitter, capped
+ * at a maximum delay and a maximum number of attempts.
+ */
+public class RetryBackoff {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MS = 30000;
+    public static final long NO_RETRY = -1;
+
+    private final Random mRandom = new Random();
+    private int mMaxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long mBaseDelay = DEFAULT_BASE_DELAY_MS;
+    private long mMaxDelay = DEFAULT_MAX_DELAY_MS;
+    private int mAttempts;
+
+    /**
+     * @param maxAttempts automatic retries after a failure, 0 to only retry from the footer
+     */
+    public RetryBackoff setMaxAttempts(final int maxAttempts) {
+        this.mMaxAttempts = Math.max(0, maxAttempts);
+        return this;
+    }
+
+    public RetryBackoff setDelays(final long baseDelayMs, final long maxDelayMs) {
+        this.mBaseDelay = Math.max(1, baseDelayMs);
+        this.mMaxDelay = Math.max(mBaseDelay, maxDelayMs);
+        return this;
+    }
+
+    public int getAttempts() {
+        return mAttempts;
+    }
+
+    /**
+     * Delay before the next automatic attempt. Half of the delay is fixed, the other half random,
+     * so lists failing together do not retry in lockstep.
+     *
+     * @return delay in milliseconds, or {@link #NO_RETRY} once the attempts are used up
+     */
+    public long nextDelay() {
+        if (mAttempts >= mMaxAttempts) {
+            return NO_RETRY;
+        }
+        final long delay = Math.min(mMaxDelay, mBaseDelay << Math.min(mAttempts, 30));
+        mAttempts++;
+        final long half = delay / 2;
+        return half + (long) (mRandom.nextDouble() * (delay - half));
+    }
+
+    /**
+     * A page loaded, the next failure starts from the base delay again
+     */
+    public void reset() {
+        mAttempts = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBackoff{" +
+                "attempts=" + mAttempts +
+                ", maxAttempts=" + mMaxAttempts +
+                ", baseDelay=" + mBaseDelay +
+                ", maxDelay=" + mMaxDelay +
+                '}';
+    }
+}
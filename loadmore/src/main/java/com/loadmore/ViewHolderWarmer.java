@@ -0,0 +1,111 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Inflates view holders ahead of time while the main thread is idle, one holder per idle pass,
+ * and puts them in the recycled view pool of an {@link EndlessRecyclerView}. This keeps the
+ * first footer or item inflation out of a scrolling frame. Must be used from the main thread.
+ */
+public class ViewHolderWarmer {
+    private final EndlessRecyclerView mRecyclerView;
+    private final Queue<Integer> mPending = new ArrayDeque<>();
+    private boolean mScheduled;
+
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            final Integer viewType = mPending.poll();
+            if (viewType != null) {
+                inflate(viewType);
+            }
+            mScheduled = !mPending.isEmpty();
+            return mScheduled;
+        }
+    };
+
+    public ViewHolderWarmer(final EndlessRecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+    }
+
+    /**
+     * Queue the loading footer
+     */
+    public ViewHolderWarmer warmUpFooter() {
+        return warmUp(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER, 1);
+    }
+
+    /**
+     * Queue the loading header
+     */
+    public ViewHolderWarmer warmUpHeader() {
+        return warmUp(EndlessRecyclerAdapter.VIEW_TYPE_HEADER, 1);
+    }
+
+    /**
+     * Queue holders of a wrapped adapter view type, the pool size is raised to fit them
+     *
+     * @param viewType view type
+     * @param count    number of holders to inflate
+     */
+    public ViewHolderWarmer warmUp(final int viewType, final int count) {
+        for (int i = 0; i < count; i++) {
+            mPending.add(viewType);
+        }
+        if (!mScheduled && !mPending.isEmpty()) {
+            mScheduled = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+        return this;
+    }
+
+    /**
+     * Drop holders not inflated yet
+     */
+    public void cancel() {
+        mPending.clear();
+        if (mScheduled) {
+            mScheduled = false;
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+        }
+    }
+
+    private void inflate(final int viewType) {
+        final EndlessRecyclerAdapter adapter = mRecyclerView.getAdapter();
+        if (adapter == null) {
+            mPending.clear();
+            return;
+        }
+        final RecyclerView.ViewHolder holder = adapter.createViewHolder(mRecyclerView, viewType);
+        final RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        final int count = pool.getRecycledViewCount(viewType);
+        pool.putRecycledView(holder);
+        if (pool.getRecycledViewCount(viewType) == count) {
+            // the pool dropped it, e.g. a shared pool sized below the warmed count; the max is
+            // not readable, raising it only when full never lowers a larger configured one
+            pool.setMaxRecycledViews(viewType, count + 1);
+            pool.putRecycledView(holder);
+        }
+    }
+}
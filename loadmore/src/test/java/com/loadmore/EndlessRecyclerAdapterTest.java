@@ -0,0 +1,324 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Notifications the wrapper sends for footer and header state transitions. Every notification is
+ * checked against the item count it implies, and the list is laid out after each transition so
+ * RecyclerView rejects inconsistent ones.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.LEGACY)
+public class EndlessRecyclerAdapterTest {
+    private static final int ITEM_SIZE = 120;
+    private static final int WIDTH = 1080;
+    private static final int VIEWPORT = 1920;
+    private static final int ITEMS = 10;
+
+    private final EndlessRecyclerView.ViewState mState = new EndlessRecyclerView.ViewState();
+    private FixedSizeAdapter mItems;
+    private EndlessRecyclerAdapter mAdapter;
+    private RecordingObserver mObserver;
+    private RecyclerView mRecyclerView;
+
+    @Before
+    public void setUp() {
+        mItems = new FixedSizeAdapter(ITEM_SIZE, ITEMS);
+        mAdapter = new EndlessRecyclerAdapter(mItems, mState);
+        mObserver = new RecordingObserver(mAdapter);
+        mAdapter.registerAdapterDataObserver(mObserver);
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mRecyclerView = new RecyclerView(activity);
+        final FrameLayout root = new FrameLayout(activity);
+        root.addView(mRecyclerView, new FrameLayout.LayoutParams(WIDTH, VIEWPORT));
+        activity.setContentView(root);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        // no disappearing children kept around for animations
+        mRecyclerView.setItemAnimator(null);
+        mRecyclerView.setAdapter(mAdapter);
+        layout();
+    }
+
+    @Test
+    public void footerShownInsertsTheSlot() {
+        setState(EndlessRecyclerView.STATE_SHOW);
+        assertEvents("inserted 10,1");
+        assertEquals(ITEMS + 1, mAdapter.getItemCount());
+        assertTrue(mAdapter.isFooterPosition(ITEMS));
+        assertEquals(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER, lastChildViewType());
+    }
+
+    @Test
+    public void unchangedStateSendsNothing() {
+        setState(EndlessRecyclerView.STATE_SHOW);
+        mObserver.mEvents.clear();
+        setState(EndlessRecyclerView.STATE_SHOW);
+        assertEvents();
+        setState(EndlessRecyclerView.STATE_HIDE);
+        mObserver.mEvents.clear();
+        setState(EndlessRecyclerView.STATE_HIDE);
+        assertEvents();
+    }
+
+    @Test
+    public void errorAndProgressChangeTheSlotInPlace() {
+        setState(EndlessRecyclerView.STATE_SHOW);
+        mObserver.mEvents.clear();
+        setState(EndlessRecyclerView.STATE_ERROR);
+        assertEvents("changed 10,1");
+        assertEquals(ITEMS + 1, mAdapter.getItemCount());
+        assertEquals(EndlessRecyclerAdapter.VIEW_TYPE_ERROR, lastChildViewType());
+        setState(EndlessRecyclerView.STATE_SHOW);
+        assertEvents("changed 10,1", "changed 10,1");
+        assertEquals(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER, lastChildViewType());
+    }
+
+    @Test
+    public void footerHiddenRemovesTheSlot() {
+        setState(EndlessRecyclerView.STATE_SHOW);
+        setState(EndlessRecyclerView.STATE_HIDE);
+        assertEvents("inserted 10,1", "removed 10,1");
+        assertEquals(ITEMS, mAdapter.getItemCount());
+        assertFalse(mAdapter.isFooterPosition(ITEMS - 1));
+        assertEquals(ITEMS, mRecyclerView.getChildCount());
+
+        setState(EndlessRecyclerView.STATE_ERROR);
+        setState(EndlessRecyclerView.STATE_HIDE);
+        assertEvents("inserted 10,1", "removed 10,1", "inserted 10,1", "removed 10,1");
+    }
+
+    @Test
+    public void footerFollowsHeaderAndItems() {
+        mState.setHeaderState(EndlessRecyclerView.STATE_SHOW);
+        setState(EndlessRecyclerView.STATE_SHOW);
+        assertEvents("inserted 0,1", "inserted 11,1");
+        mItems.add(5);
+        setState(EndlessRecyclerView.STATE_ERROR);
+        assertEvents("inserted 0,1", "inserted 11,1", "inserted 11,5", "changed 16,1");
+        assertTrue(mAdapter.isFooterPosition(16));
+        mState.setHeaderState(EndlessRecyclerView.STATE_HIDE);
+        setState(EndlessRecyclerView.STATE_HIDE);
+        assertEvents("inserted 0,1", "inserted 11,1", "inserted 11,5", "changed 16,1", "removed 0,1", "removed 15,1");
+        assertEquals(ITEMS + 5, mAdapter.getItemCount());
+    }
+
+    @Test
+    public void dataSetChangedResyncsTheSlots() {
+        mState.setState(EndlessRecyclerView.STATE_SHOW);
+        mItems.notifyDataSetChanged();
+        layout();
+        assertEvents("dataSetChanged");
+        assertEquals(1, mAdapter.getDataSetChangedCount());
+        assertEquals(ITEMS + 1, mAdapter.getItemCount());
+        // already in sync, the state update has nothing left to send
+        mAdapter.updateState();
+        assertEvents("dataSetChanged");
+    }
+
+    @Test
+    public void wrappedChangesAreShiftedByTheHeader() {
+        mState.setHeaderState(EndlessRecyclerView.STATE_SHOW);
+        setState(EndlessRecyclerView.STATE_SHOW);
+        mObserver.mEvents.clear();
+        mItems.add(2);
+        mItems.remove(0, 3);
+        mItems.notifyItemRangeChanged(2, 4);
+        mItems.notifyItemChanged(5, "payload");
+        mItems.notifyItemMoved(1, 5);
+        layout();
+        assertEvents("inserted 11,2", "removed 1,3", "changed 3,4", "changed 6,1", "moved 2,6,1");
+        assertFooterLast(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER);
+    }
+
+    @Test
+    public void wrappedChangesWithoutHeaderAreNotShifted() {
+        setState(EndlessRecyclerView.STATE_SHOW);
+        mObserver.mEvents.clear();
+        mItems.add(2);
+        mItems.remove(0, 3);
+        mItems.notifyItemMoved(1, 5);
+        layout();
+        assertEvents("inserted 10,2", "removed 0,3", "moved 1,5,1");
+        assertFooterLast(EndlessRecyclerAdapter.VIEW_TYPE_FOOTER);
+    }
+
+    @Test
+    public void errorSlotStaysLast() {
+        mState.setHeaderState(EndlessRecyclerView.STATE_SHOW);
+        setState(EndlessRecyclerView.STATE_ERROR);
+        mItems.add(3);
+        layout();
+        assertFooterLast(EndlessRecyclerAdapter.VIEW_TYPE_ERROR);
+        mItems.remove(ITEMS, 3);
+        layout();
+        assertFooterLast(EndlessRecyclerAdapter.VIEW_TYPE_ERROR);
+        assertEvents("inserted 0,1", "inserted 11,1", "inserted 11,3", "removed 11,3");
+    }
+
+    @Test
+    public void slotIdsStayOutOfTheWrappedIds() {
+        final EndlessRecyclerAdapter adapter = new EndlessRecyclerAdapter(stableIds(20, 0), mState);
+        final PagedList<Integer> pagedList = new PagedList<>();
+        pagedList.setTotalCount(20, 10);
+        pagedList.setPage(0, Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        adapter.setPagedList(pagedList);
+        mState.setHeaderState(EndlessRecyclerView.STATE_SHOW);
+        mState.setState(EndlessRecyclerView.STATE_SHOW);
+        adapter.updateState();
+        assertEquals(EndlessRecyclerAdapter.HEADER_ITEM_ID, adapter.getItemId(0));
+        assertEquals(0, adapter.getItemId(1));
+        assertEquals(9, adapter.getItemId(10));
+        assertEquals(EndlessRecyclerAdapter.PLACEHOLDER_ITEM_ID + 10, adapter.getItemId(11));
+        assertEquals(EndlessRecyclerAdapter.PLACEHOLDER_ITEM_ID + 19, adapter.getItemId(20));
+        assertEquals(EndlessRecyclerAdapter.FOOTER_ITEM_ID, adapter.getItemId(21));
+        assertTrue(EndlessRecyclerAdapter.PLACEHOLDER_ITEM_ID + Integer.MAX_VALUE - 1
+                < EndlessRecyclerAdapter.RESERVED_ITEM_ID_END);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void wrappedIdInReservedRangeFails() {
+        final EndlessRecyclerAdapter adapter = new EndlessRecyclerAdapter(
+                stableIds(20, EndlessRecyclerAdapter.PLACEHOLDER_ITEM_ID), mState);
+        adapter.getItemId(5);
+    }
+
+    @Test
+    public void wrappedIdAfterReservedRangePasses() {
+        final long first = EndlessRecyclerAdapter.RESERVED_ITEM_ID_END;
+        final EndlessRecyclerAdapter adapter = new EndlessRecyclerAdapter(stableIds(20, first), mState);
+        assertEquals(first, adapter.getItemId(0));
+    }
+
+    /**
+     * Items whose stable id is their position plus the given offset
+     */
+    private static FixedSizeAdapter stableIds(final int count, final long offset) {
+        final FixedSizeAdapter items = new FixedSizeAdapter(ITEM_SIZE, count) {
+            @Override
+            public long getItemId(final int position) {
+                return offset + position;
+            }
+        };
+        items.setHasStableIds(true);
+        return items;
+    }
+
+    private void assertFooterLast(final int viewType) {
+        final int last = mAdapter.getItemCount() - 1;
+        assertTrue(mAdapter.isFooterPosition(last));
+        assertEquals(viewType, mAdapter.getItemViewType(last));
+        assertEquals(viewType, lastChildViewType());
+    }
+
+    private void setState(final int state) {
+        mState.setState(state);
+        mAdapter.updateState();
+        layout();
+    }
+
+    private void assertEvents(final String... events) {
+        assertEquals(Arrays.asList(events), mObserver.mEvents);
+    }
+
+    private int lastChildViewType() {
+        final View last = mRecyclerView.getChildAt(mRecyclerView.getChildCount() - 1);
+        return mRecyclerView.getChildViewHolder(last).getItemViewType();
+    }
+
+    private void layout() {
+        mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(VIEWPORT, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, WIDTH, VIEWPORT);
+    }
+
+    /**
+     * Records notifications and checks each one against the item count it implies
+     */
+    static class RecordingObserver extends RecyclerView.AdapterDataObserver {
+        final List<String> mEvents = new ArrayList<>();
+        private final RecyclerView.Adapter mAdapter;
+        private int mCount;
+
+        RecordingObserver(final RecyclerView.Adapter adapter) {
+            mAdapter = adapter;
+            mCount = adapter.getItemCount();
+        }
+
+        @Override
+        public void onChanged() {
+            mEvents.add("dataSetChanged");
+            mCount = mAdapter.getItemCount();
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount) {
+            record("changed", positionStart, itemCount, 0);
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount, final Object payload) {
+            record("changed", positionStart, itemCount, 0);
+        }
+
+        @Override
+        public void onItemRangeInserted(final int positionStart, final int itemCount) {
+            record("inserted", positionStart, itemCount, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(final int positionStart, final int itemCount) {
+            record("removed", positionStart, itemCount, -itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(final int fromPosition, final int toPosition, final int itemCount) {
+            mEvents.add("moved " + fromPosition + "," + toPosition + "," + itemCount);
+        }
+
+        private void record(final String type, final int positionStart, final int itemCount, final int delta) {
+            mEvents.add(type + " " + positionStart + "," + itemCount);
+            mCount += delta;
+            assertEquals(type + " " + positionStart + "," + itemCount, mCount, mAdapter.getItemCount());
+            final int end = delta < 0 ? mCount - delta : mCount;
+            assertTrue(type + " " + positionStart + "," + itemCount + " out of " + end,
+                    positionStart >= 0 && positionStart + itemCount <= end);
+        }
+    }
+}
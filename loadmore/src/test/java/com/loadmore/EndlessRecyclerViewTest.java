@@ -0,0 +1,142 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scroll trigger of a real {@link EndlessRecyclerView} laid out in an activity. The clock does
+ * not advance between scrolls, the predictor sees no velocity and only the threshold triggers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.LEGACY)
+public class EndlessRecyclerViewTest {
+    private static final int ITEM_SIZE = 120;
+    private static final int WIDTH = 1080;
+    private static final int VIEWPORT = 1920;
+
+    private Activity mActivity;
+    private EndlessRecyclerView mView;
+    private int mLoads;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mView = new EndlessRecyclerView(mActivity);
+        mView.setPredictiveLoad(true);
+        mView.setOnLoadMoreListener(new EndlessRecyclerView.OnLoadMoreListener() {
+            @Override
+            public void onLoadMore(final EndlessRecyclerView view) {
+                mLoads++;
+            }
+        });
+        final FrameLayout root = new FrameLayout(mActivity);
+        root.addView(mView, new FrameLayout.LayoutParams(WIDTH, VIEWPORT));
+        mActivity.setContentView(root);
+    }
+
+    @Test
+    public void onScrolledTriggersAtThreshold() {
+        show(100);
+        // 17 of 101 positions visible, the first one must come within 3 of the remaining 84
+        scrollBy(60 * ITEM_SIZE);
+        assertEquals(0, mLoads);
+        scrollBy(20 * ITEM_SIZE);
+        assertEquals(0, mLoads);
+        scrollBy(2 * ITEM_SIZE);
+        assertEquals(1, mLoads);
+        assertTrue(mView.isLoadPending());
+        // pending, further frames must not request the page again
+        scrollBy(ITEM_SIZE);
+        scrollBy(-ITEM_SIZE);
+        scrollBy(ITEM_SIZE);
+        assertEquals(1, mLoads);
+    }
+
+    @Test
+    public void onScrolledTriggersByRowsOnGrid() {
+        mView.setLayoutManager(new GridLayoutManager(mActivity, 3));
+        // 99 items in 33 rows, the footer takes a row of its own
+        show(99);
+        // rows 14 to 29 visible, 4 rows left
+        scrollBy(14 * ITEM_SIZE);
+        assertEquals(0, mLoads);
+        scrollBy(ITEM_SIZE);
+        assertEquals(1, mLoads);
+        scrollBy(ITEM_SIZE);
+        assertEquals(1, mLoads);
+    }
+
+    @Test
+    public void nextPageArmsTheTriggerAgain() {
+        final FixedSizeAdapter items = show(100);
+        scrollBy(100 * ITEM_SIZE);
+        assertEquals(1, mLoads);
+        items.add(100);
+        mView.setLoading(EndlessRecyclerView.ScrollType.IN_PROGRESS);
+        layout();
+        scrollBy(50 * ITEM_SIZE);
+        assertEquals(1, mLoads);
+        scrollBy(100 * ITEM_SIZE);
+        assertEquals(2, mLoads);
+    }
+
+    private FixedSizeAdapter show(final int count) {
+        final FixedSizeAdapter items = new FixedSizeAdapter(ITEM_SIZE, count);
+        mView.setAdapter(items);
+        // the first page arrived, the trigger is armed
+        mView.setLoading(EndlessRecyclerView.ScrollType.IN_PROGRESS);
+        layout();
+        // past the velocity timeout, the first scroll sample starts from rest
+        ShadowLooper.idleMainLooper(200, TimeUnit.MILLISECONDS);
+        return items;
+    }
+
+    /**
+     * Scroll without running the looper, a load can only come from the scroll listener
+     */
+    private void scrollBy(final int dy) {
+        mView.scrollBy(0, dy);
+    }
+
+    private void layout() {
+        ShadowLooper.idleMainLooper();
+        if (mView.isLayoutRequested()) {
+            mView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(VIEWPORT, View.MeasureSpec.EXACTLY));
+            mView.layout(0, 0, WIDTH, VIEWPORT);
+        }
+    }
+}
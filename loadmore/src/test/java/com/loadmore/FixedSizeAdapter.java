@@ -0,0 +1,64 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Items of a fixed extent along the scroll axis, for lists laid out in Robolectric tests
+ */
+class FixedSizeAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    private final int mItemExtent;
+    private int mCount;
+
+    FixedSizeAdapter(final int itemExtent, final int count) {
+        mItemExtent = itemExtent;
+        mCount = count;
+    }
+
+    void add(final int count) {
+        final int start = mCount;
+        mCount += count;
+        notifyItemRangeInserted(start, count);
+    }
+
+    void remove(final int start, final int count) {
+        mCount -= count;
+        notifyItemRangeRemoved(start, count);
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull final ViewGroup parent, final int viewType) {
+        final View view = new View(parent.getContext());
+        view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, mItemExtent));
+        return new RecyclerView.ViewHolder(view) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull final RecyclerView.ViewHolder holder, final int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCount;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        final Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void countSumAndMax() {
+        final Histogram histogram = new Histogram();
+        histogram.record(10);
+        histogram.record(30);
+        histogram.record(-5);
+        assertEquals(3, histogram.getCount());
+        assertEquals(40, histogram.getSum());
+        assertEquals(30, histogram.getMax());
+        assertEquals(13, histogram.getMean());
+    }
+
+    @Test
+    public void powerOfTwoBuckets() {
+        final Histogram histogram = new Histogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(4);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(2, histogram.getBucketCount(2));
+        assertEquals(1, histogram.getBucketCount(3));
+        assertEquals(1, histogram.getBucketCount(histogram.getBucketSize() - 1));
+    }
+
+    @Test
+    public void percentileIsBucketUpperBound() {
+        final Histogram histogram = new Histogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100);
+        }
+        assertEquals(7, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(90));
+        assertEquals(100, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void reset() {
+        final Histogram histogram = new Histogram();
+        histogram.record(8);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getBucketCount(4));
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoadPredictorTest {
+
+    @Test
+    public void velocityFollowsScrollSamples() {
+        final LoadPredictor predictor = new LoadPredictor();
+        predictor.onScrolled(0, 1000);
+        for (long now = 1016; now <= 1016 * 20; now += 16) {
+            predictor.onScrolled(32, now);
+        }
+        assertEquals(2f, predictor.getVelocity(), 0.01f);
+    }
+
+    @Test
+    public void sameFrameSampleKeepsVelocity() {
+        final LoadPredictor predictor = new LoadPredictor();
+        predictor.onScrolled(0, 1000);
+        predictor.onScrolled(32, 1016);
+        final float velocity = predictor.getVelocity();
+        assertTrue(velocity > 0);
+        predictor.onScrolled(32, 1016);
+        assertEquals(velocity, predictor.getVelocity(), 0f);
+        // the next sample is measured from the last one that had elapsed time
+        predictor.onScrolled(32, 1032);
+        assertTrue(predictor.getVelocity() > velocity);
+    }
+
+    @Test
+    public void pauseResetsVelocity() {
+        final LoadPredictor predictor = new LoadPredictor();
+        predictor.onScrolled(0, 1000);
+        predictor.onScrolled(32, 1016);
+        predictor.onScrolled(32, 2000);
+        assertEquals(0f, predictor.getVelocity(), 0f);
+        assertFalse(predictor.shouldLoad(0));
+    }
+
+    @Test
+    public void shouldLoadWithinLatencyDistance() {
+        final LoadPredictor predictor = new LoadPredictor().setSafetyFactor(1);
+        predictor.onLoadRequested(0);
+        predictor.onLoadFinished(LoadPredictor.DEFAULT_LATENCY_MS);
+        predictor.onScrolled(0, 1000);
+        for (long now = 1016; now <= 1016 * 20; now += 16) {
+            predictor.onScrolled(16, now);
+        }
+        // 1 px/ms for 500 ms
+        assertTrue(predictor.shouldLoad(490));
+        assertFalse(predictor.shouldLoad(510));
+    }
+}
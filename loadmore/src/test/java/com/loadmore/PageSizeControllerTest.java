@@ -0,0 +1,52 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PageSizeControllerTest {
+
+    @Test
+    public void firstPageIsMinimum() {
+        final PageSizeController controller = new PageSizeController().setMinPageSize(12);
+        assertEquals(12, controller.suggest(true, 10f, 1000, 100));
+    }
+
+    @Test
+    public void growsWithItemsScrolledDuringLatency() {
+        final PageSizeController controller = new PageSizeController();
+        // 2 px/ms for 500ms over 100px items is 10 items, twice for coverage
+        assertEquals(20, controller.suggest(false, 2f, 500, 100));
+        assertEquals(PageSizeController.DEFAULT_MIN_PAGE_SIZE, controller.suggest(false, 0f, 500, 100));
+    }
+
+    @Test
+    public void cappedByMaxPageSize() {
+        final PageSizeController controller = new PageSizeController().setMaxPageSize(30);
+        assertEquals(30, controller.suggest(false, 20f, 1000, 50));
+    }
+
+    @Test
+    public void cappedByBindBudget() {
+        final PageSizeController controller = new PageSizeController().setBindBudget(16);
+        // 1ms per bind allows 16 binds in the budget
+        controller.onBindMeasured(1000000);
+        assertEquals(1000000, controller.getBindCostNanos());
+        assertEquals(16, controller.suggest(false, 20f, 1000, 50));
+    }
+}
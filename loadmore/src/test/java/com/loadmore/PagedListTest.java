@@ -0,0 +1,222 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagedListTest {
+    private final List<Integer> mRequested = new ArrayList<>();
+    private PagedList<Integer> mList;
+
+    @Before
+    public void setUp() {
+        mList = new PagedList<Integer>().setMaxPages(3).setOnPageRequestListener(new PagedList.OnPageRequestListener() {
+            @Override
+            public void onPageRequested(final PagedList list, final int page) {
+                mRequested.add(page);
+            }
+        });
+    }
+
+    @Test
+    public void lookupAcrossPagesOfVaryingSize() {
+        int next = 0;
+        final int[] sizes = {10, 0, 7, 13, 0, 5};
+        for (int size : sizes) {
+            next = addPage(next, size);
+        }
+        assertEquals(35, mList.size());
+        for (int position = 0; position < 35; position++) {
+            assertEquals(position, (int) mList.get(position));
+        }
+        assertEquals(0, mList.getPageOf(9));
+        assertEquals(2, mList.getPageOf(10));
+        assertEquals(3, mList.getPageOf(17));
+        assertEquals(5, mList.getPageOf(30));
+        assertEquals(-1, mList.getPageOf(35));
+        assertEquals(30, mList.getPageStart(5));
+    }
+
+    @Test
+    public void evictsOutsideWindowAndRequestsOnReturn() {
+        int next = 0;
+        for (int page = 0; page < 10; page++) {
+            next = addPage(next, 10);
+        }
+        mList.onVisibleRange(50, 55);
+        assertTrue(mList.isPageLoaded(4) && mList.isPageLoaded(5) && mList.isPageLoaded(6));
+        assertFalse(mList.isPageLoaded(3));
+        assertFalse(mList.isPageLoaded(7));
+        assertTrue(mList.isPlaceholder(0));
+        assertNull(mList.get(0));
+        assertTrue(mRequested.isEmpty());
+
+        mList.onVisibleRange(10, 15);
+        assertEquals(Arrays.asList(1, 2, 0), mRequested);
+        mRequested.clear();
+        mList.onVisibleRange(10, 15);
+        assertTrue("requested once", mRequested.isEmpty());
+    }
+
+    @Test
+    public void resetRequestsRequestsAgain() {
+        int next = 0;
+        for (int page = 0; page < 10; page++) {
+            next = addPage(next, 10);
+        }
+        mList.onVisibleRange(50, 55);
+        mList.onVisibleRange(10, 15);
+        assertEquals(Arrays.asList(1, 2, 0), mRequested);
+        mRequested.clear();
+        mList.resetRequests();
+        mList.onVisibleRange(10, 15);
+        assertEquals(Arrays.asList(1, 2, 0), mRequested);
+    }
+
+    @Test
+    public void visiblePagesStayWhenMoreThanMaxPagesVisible() {
+        mList.setTotalCount(200, 10);
+        mList.onVisibleRange(0, 59);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), mRequested);
+        for (int page = 0; page < 6; page++) {
+            mList.setPage(page, items(page * 10, 10));
+        }
+        mRequested.clear();
+        mList.onVisibleRange(0, 59);
+        for (int page = 0; page < 6; page++) {
+            assertTrue(mList.isPageLoaded(page));
+        }
+        assertTrue(mRequested.isEmpty());
+    }
+
+    @Test
+    public void placeholderModeRequestsVisiblePagesFirst() {
+        mList.setTotalCount(1000, 20);
+        assertEquals(1000, mList.size());
+        assertTrue(mList.isPlaceholder(999));
+        mList.onVisibleRange(600, 639);
+        assertEquals(Arrays.asList(30, 31, 32, 29), mRequested);
+        mList.setPage(30, items(600, 20));
+        assertEquals(600, (int) mList.get(600));
+    }
+
+    @Test
+    public void failedPageIsRequestedAgain() {
+        mList.setTotalCount(100, 10);
+        mList.onVisibleRange(0, 5);
+        mRequested.clear();
+        mList.onPageFailed(0);
+        mList.onVisibleRange(0, 5);
+        assertEquals(Arrays.asList(0), mRequested);
+    }
+
+    @Test
+    public void flingTargetRequestedFirstAndKept() {
+        mList.setTotalCount(1000, 10);
+        mList.setFlingTarget(500, 509);
+        assertEquals(50, (int) mRequested.get(0));
+        mRequested.clear();
+        // pages passed during the fling are not requested
+        mList.onVisibleRange(200, 209);
+        assertTrue(mRequested.isEmpty());
+        mList.setPage(50, items(500, 10));
+        mList.onVisibleRange(210, 219);
+        assertTrue(mList.isPageLoaded(50));
+        mList.clearFlingTarget();
+        mList.onVisibleRange(500, 509);
+        assertTrue(mList.isPageLoaded(50));
+    }
+
+    @Test
+    public void requestsWaitUntilTheScrollSettles() {
+        mList.setTotalCount(1000, 10);
+        mList.setScrolling(true);
+        for (int position = 0; position <= 500; position += 10) {
+            mList.onVisibleRange(position, position + 9);
+        }
+        assertTrue(mRequested.isEmpty());
+        mList.setScrolling(false);
+        mList.onVisibleRange(500, 509);
+        assertEquals(Arrays.asList(50, 51, 49), mRequested);
+    }
+
+    @Test
+    public void evictedPagesInFlightAreCancelled() {
+        final List<Integer> cancelled = new ArrayList<>();
+        mList.setOnPageCancelListener(new PagedList.OnPageCancelListener() {
+            @Override
+            public void onPageCancelled(final PagedList list, final int page) {
+                cancelled.add(page);
+            }
+        });
+        mList.setTotalCount(1000, 10);
+        mList.onVisibleRange(0, 9);
+        mList.onVisibleRange(500, 509);
+        assertEquals(Arrays.asList(0, 1), cancelled);
+        cancelled.clear();
+        mList.setPage(50, items(500, 10));
+        mList.onVisibleRange(0, 9);
+        // the loaded page is only evicted
+        assertEquals(Arrays.asList(51, 49), cancelled);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPageChecksSize() {
+        mList.setTotalCount(100, 10);
+        mList.setPage(2, items(20, 9));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setTotalCountChecksPageSize() {
+        mList.setTotalCount(100, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setTotalCountChecksTotalCount() {
+        mList.setTotalCount(-1, 10);
+    }
+
+    @Test
+    public void setTotalCountNearIntLimit() {
+        mList.setTotalCount(Integer.MAX_VALUE, 1 << 30);
+        assertEquals(2, mList.getPageCount());
+        assertEquals(1 << 30, mList.getPageStart(1));
+        assertEquals(Integer.MAX_VALUE, mList.size());
+    }
+
+    private int addPage(final int start, final int size) {
+        mList.addPage(items(start, size));
+        return start + size;
+    }
+
+    private static List<Integer> items(final int start, final int size) {
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(start + i);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class PositionMathTest {
+    private static final int ITEM_SIZE = 120;
+    private static final int VIEWPORT = 1920;
+
+    @Test
+    public void findOneVisibleFromBothEnds() {
+        final Children children = new Children(20, -ITEM_SIZE / 2);
+        assertEquals(0, PositionMath.findOneVisible(children, 0, 20, 0, VIEWPORT, false, true));
+        assertEquals(1, PositionMath.findOneVisible(children, 0, 20, 0, VIEWPORT, true, false));
+        assertEquals(16, PositionMath.findOneVisible(children, 19, -1, 0, VIEWPORT, false, true));
+        assertEquals(15, PositionMath.findOneVisible(children, 19, -1, 0, VIEWPORT, true, false));
+    }
+
+    @Test
+    public void findOneVisibleFallsBackToPartiallyVisible() {
+        // one child taller than the viewport is never completely visible
+        final Children children = new Children(1, 0);
+        children.setBounds(0, -10, VIEWPORT + 10);
+        assertEquals(PositionMath.NO_INDEX, PositionMath.findOneVisible(children, 0, 1, 0, VIEWPORT, true, false));
+        assertEquals(0, PositionMath.findOneVisible(children, 0, 1, 0, VIEWPORT, true, true));
+    }
+
+    @Test
+    public void thresholdReached() {
+        assertFalse(PositionMath.isThresholdReached(100, 10, 50, 3));
+        assertFalse(PositionMath.isThresholdReached(100, 10, 86, 3));
+        assertTrue(PositionMath.isThresholdReached(100, 10, 87, 3));
+        // a first page shorter than the viewport
+        assertTrue(PositionMath.isThresholdReached(5, 5, 0, 3));
+    }
+
+    @Test
+    public void slotOf() {
+        assertEquals(PositionMath.SLOT_HEADER, PositionMath.slotOf(0, true, true, 10));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(0, false, true, 10));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(10, true, true, 10));
+        assertEquals(PositionMath.SLOT_FOOTER, PositionMath.slotOf(11, true, true, 10));
+        assertEquals(PositionMath.SLOT_FOOTER, PositionMath.slotOf(10, false, true, 10));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(10, false, false, 11));
+    }
+
+    @Test
+    public void slotOfPlaceholders() {
+        final PositionMath.Placeholders evenPlaceholders = new PositionMath.Placeholders() {
+            @Override
+            public boolean isPlaceholder(final int position) {
+                return position % 2 == 0;
+            }
+        };
+        assertEquals(PositionMath.SLOT_HEADER, PositionMath.slotOf(0, true, true, 10, evenPlaceholders));
+        assertEquals(PositionMath.SLOT_PLACEHOLDER, PositionMath.slotOf(1, true, true, 10, evenPlaceholders));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(2, true, true, 10, evenPlaceholders));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(1, false, true, 10, evenPlaceholders));
+        assertEquals(PositionMath.SLOT_FOOTER, PositionMath.slotOf(11, true, true, 10, evenPlaceholders));
+        assertEquals(PositionMath.SLOT_ITEM, PositionMath.slotOf(1, true, true, 10, null));
+    }
+
+    @Test
+    public void scrollPathAllocatesNothing() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long thread = Thread.currentThread().getId();
+        final Children children = new Children(64, -ITEM_SIZE / 2);
+        // warm up so the measured loop runs compiled code, then calibrate the measurement itself
+        int sink = scroll(children, 20000);
+        long before = threads.getThreadAllocatedBytes(thread);
+        long after = threads.getThreadAllocatedBytes(thread);
+        final long overhead = after - before;
+        before = threads.getThreadAllocatedBytes(thread);
+        sink += scroll(children, 20000);
+        after = threads.getThreadAllocatedBytes(thread);
+        assertEquals(0, after - before - overhead);
+        assertTrue(sink != 0);
+    }
+
+    private static int scroll(final Children children, final int frames) {
+        int sink = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            final int offset = frame % ITEM_SIZE;
+            children.layout(-offset);
+            final int first = PositionMath.findOneVisible(children, 0, children.size(), 0, VIEWPORT, false, true);
+            final int last = PositionMath.findOneVisible(children, children.size() - 1, -1, 0, VIEWPORT, true, true);
+            children.reset();
+            if (PositionMath.isThresholdReached(1000, last - first + 1, first + frame % 900, 3)) {
+                sink++;
+            }
+            sink += PositionMath.slotOf(frame % 1002, true, true, 1000);
+        }
+        return sink;
+    }
+
+    /**
+     * Child bounds looked up through the cache RecyclerViewHelper uses: one child fetch per index
+     */
+    private static class Children extends PositionMath.ChildCache<int[]> {
+        private final int[][] mChildren;
+
+        Children(final int count, final int start) {
+            mChildren = new int[count][2];
+            layout(start);
+        }
+
+        void layout(final int start) {
+            for (int i = 0; i < mChildren.length; i++) {
+                setBounds(i, start + i * ITEM_SIZE, start + (i + 1) * ITEM_SIZE);
+            }
+        }
+
+        void setBounds(final int index, final int start, final int end) {
+            mChildren[index][0] = start;
+            mChildren[index][1] = end;
+        }
+
+        int size() {
+            return mChildren.length;
+        }
+
+        @Override
+        protected int[] getChild(final int index) {
+            return mChildren[index];
+        }
+
+        @Override
+        protected int getStart(final int[] child) {
+            return child[0];
+        }
+
+        @Override
+        protected int getEnd(final int[] child) {
+            return child[1];
+        }
+    }
+}
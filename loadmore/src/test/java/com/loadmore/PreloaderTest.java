@@ -0,0 +1,95 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreloaderTest {
+    private final List<Integer> mStarted = new ArrayList<>();
+    private final List<Integer> mCancelled = new ArrayList<>();
+    private final List<Integer> mInFlight = new ArrayList<>();
+    private Preloader mPreloader;
+
+    @Before
+    public void setUp() {
+        mPreloader = new Preloader(new Preloader.OnPreloadListener() {
+            @Override
+            public void onPreload(final int position) {
+                mStarted.add(position);
+                mInFlight.add(position);
+            }
+
+            @Override
+            public void onPreloadCancelled(final int position) {
+                mCancelled.add(position);
+                mInFlight.remove(Integer.valueOf(position));
+            }
+        }).setLookahead(5).setMaxConcurrent(2);
+    }
+
+    @Test
+    public void preloadsAheadInScrollDirection() {
+        mPreloader.onScrolled(0, 9, 10, 100);
+        assertEquals(2, mPreloader.getInFlightCount());
+        assertEquals(3, mPreloader.getQueuedCount());
+        assertEquals(10, (int) mStarted.get(0));
+        assertEquals(11, (int) mStarted.get(1));
+        mPreloader.onPreloadDone(10);
+        assertEquals(12, (int) mStarted.get(2));
+    }
+
+    @Test
+    public void queueBoundedDuringLongFling() {
+        for (int first = 0; first < 500; first += 10) {
+            mPreloader.onScrolled(first, first + 9, 500, 10000);
+            assertTrue(mPreloader.getQueuedCount() <= 5);
+        }
+        // positions the viewport passed are dropped, only the ones ahead start once slots free up
+        mStarted.clear();
+        while (!mInFlight.isEmpty()) {
+            mPreloader.onPreloadDone(mInFlight.remove(0));
+        }
+        assertEquals(5, mStarted.size());
+        for (int position : mStarted) {
+            assertTrue("position " + position, position > 499 && position <= 504);
+        }
+    }
+
+    @Test
+    public void reverseCancelsAndPreloadsBackwards() {
+        mPreloader.onScrolled(50, 59, 10, 100);
+        mPreloader.onScrolled(48, 57, -10, 100);
+        assertEquals(2, mCancelled.size());
+        assertEquals(47, (int) mStarted.get(mStarted.size() - 2));
+        assertEquals(46, (int) mStarted.get(mStarted.size() - 1));
+    }
+
+    @Test
+    public void stopsAtListEnds() {
+        mPreloader.onScrolled(90, 97, 10, 100);
+        assertEquals(2, mPreloader.getInFlightCount() + mPreloader.getQueuedCount());
+        mPreloader.cancelAll();
+        mPreloader.onScrolled(1, 10, -10, 100);
+        assertEquals(1, mPreloader.getInFlightCount() + mPreloader.getQueuedCount());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * {@link RecyclerViewHelper} on a real RecyclerView laid out in an activity
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.LEGACY)
+public class RecyclerViewHelperTest {
+    private static final int ITEM_SIZE = 120;
+    private static final int WIDTH = 1080;
+    private static final int VIEWPORT = 1920;
+
+    private Activity mActivity;
+    private RecyclerView mRecyclerView;
+    private int mSink;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mRecyclerView = new RecyclerView(mActivity);
+        final FrameLayout root = new FrameLayout(mActivity);
+        root.addView(mRecyclerView, new FrameLayout.LayoutParams(WIDTH, VIEWPORT));
+        mActivity.setContentView(root);
+    }
+
+    @Test
+    public void findOneVisibleChildOnScrolledList() {
+        final RecyclerViewHelper helper = show(new LinearLayoutManager(mActivity), 100);
+        scrollBy(ITEM_SIZE / 2);
+        final int childCount = mRecyclerView.getChildCount();
+        assertEquals(0, positionOf(helper.findOneVisibleChild(0, childCount, false, true)));
+        assertEquals(1, positionOf(helper.findOneVisibleChild(0, childCount, true, false)));
+        assertEquals(16, positionOf(helper.findOneVisibleChild(childCount - 1, -1, false, true)));
+        assertEquals(15, positionOf(helper.findOneVisibleChild(childCount - 1, -1, true, false)));
+        assertEquals(-ITEM_SIZE / 2, helper.getStartOffset(mRecyclerView.getChildAt(0)));
+    }
+
+    @Test
+    public void findVisibleItemPositionsOnStaggeredGrid() {
+        final RecyclerViewHelper helper = show(new StaggeredGridLayoutManager(1, StaggeredGridLayoutManager.VERTICAL), 100);
+        scrollBy(ITEM_SIZE / 2);
+        assertEquals(0, helper.findFirstVisibleItemPosition());
+        assertEquals(1, helper.findFirstCompletelyVisibleItemPosition());
+        assertEquals(16, helper.findLastVisibleItemPosition());
+        assertEquals(15, helper.findLastCompletelyVisibleItemPosition());
+    }
+
+    @Test
+    public void rowsAfterLastVisible() {
+        RecyclerViewHelper helper = show(new LinearLayoutManager(mActivity), 100);
+        scrollBy(ITEM_SIZE / 2);
+        assertEquals(99 - 16, helper.getRowsAfterLastVisible());
+
+        // 99 items in 33 rows of 3, row 16 is the last visible one
+        helper = show(new GridLayoutManager(mActivity, 3), 99);
+        scrollBy(ITEM_SIZE / 2);
+        assertEquals(32 - 16, helper.getRowsAfterLastVisible());
+
+        helper = show(new StaggeredGridLayoutManager(1, StaggeredGridLayoutManager.VERTICAL), 100);
+        scrollBy(ITEM_SIZE / 2);
+        assertEquals(99 - 16, helper.getRowsAfterLastVisible());
+    }
+
+    @Test
+    public void scrollPathAllocatesNothing() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long thread = Thread.currentThread().getId();
+        for (RecyclerView.LayoutManager layoutManager : new RecyclerView.LayoutManager[]{
+                new GridLayoutManager(mActivity, 3),
+                new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL)}) {
+            final RecyclerViewHelper helper = show(layoutManager, 300);
+            // warm up so the measured frames run compiled code
+            scroll(helper, 2000, threads, thread);
+            final long allocated = scroll(helper, 2000, threads, thread);
+            // a single object per frame would be at least 16 bytes each
+            assertTrue(layoutManager + " allocated " + allocated + " bytes", allocated < 2000);
+            assertTrue(mSink != 0);
+        }
+    }
+
+    /**
+     * Scroll back and forth, only the helper calls of each frame are measured since scrolling
+     * and layout themselves may allocate
+     *
+     * @return bytes allocated by the helper
+     */
+    private long scroll(final RecyclerViewHelper helper, final int frames,
+                        final com.sun.management.ThreadMXBean threads, final long thread) {
+        long allocated = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            // a few rows up and down, no view holder is created once warmed up
+            scrollBy(frame % 20 < 10 ? 37 : -37);
+            long before = threads.getThreadAllocatedBytes(thread);
+            final long overhead = threads.getThreadAllocatedBytes(thread) - before;
+            before = threads.getThreadAllocatedBytes(thread);
+            helper.attach(mRecyclerView);
+            final int childCount = mRecyclerView.getChildCount();
+            final View first = helper.findOneVisibleChild(0, childCount, false, true);
+            final View last = helper.findOneVisibleChild(childCount - 1, -1, true, true);
+            mSink += helper.getRowsAfterLastVisible() + helper.getStartOffset(first) + (last == null ? 0 : 1);
+            allocated += threads.getThreadAllocatedBytes(thread) - before - overhead;
+        }
+        return allocated;
+    }
+
+    private RecyclerViewHelper show(final RecyclerView.LayoutManager layoutManager, final int count) {
+        mRecyclerView.setLayoutManager(layoutManager);
+        mRecyclerView.setAdapter(new FixedSizeAdapter(ITEM_SIZE, count));
+        layout();
+        return new RecyclerViewHelper(mRecyclerView);
+    }
+
+    private void scrollBy(final int dy) {
+        mRecyclerView.scrollBy(0, dy);
+        layout();
+    }
+
+    private void layout() {
+        if (mRecyclerView.isLayoutRequested()) {
+            mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(VIEWPORT, View.MeasureSpec.EXACTLY));
+            mRecyclerView.layout(0, 0, WIDTH, VIEWPORT);
+        }
+    }
+
+    private int positionOf(final View child) {
+        return child == null ? RecyclerView.NO_POSITION : mRecyclerView.getChildAdapterPosition(child);
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBackoffTest {
+
+    @Test
+    public void delaysDoubleWithJitter() {
+        final RetryBackoff backoff = new RetryBackoff().setMaxAttempts(4).setDelays(1000, 60000);
+        long expected = 1000;
+        for (int attempt = 0; attempt < 4; attempt++) {
+            final long delay = backoff.nextDelay();
+            assertTrue("delay " + delay, delay >= expected / 2 && delay <= expected);
+            expected *= 2;
+        }
+        assertEquals(4, backoff.getAttempts());
+    }
+
+    @Test
+    public void delayCappedAtMax() {
+        final RetryBackoff backoff = new RetryBackoff().setMaxAttempts(40).setDelays(1000, 5000);
+        for (int attempt = 0; attempt < 40; attempt++) {
+            assertTrue(backoff.nextDelay() <= 5000);
+        }
+    }
+
+    @Test
+    public void noRetryOnceAttemptsUsed() {
+        final RetryBackoff backoff = new RetryBackoff().setMaxAttempts(2);
+        assertTrue(backoff.nextDelay() > 0);
+        assertTrue(backoff.nextDelay() > 0);
+        assertEquals(RetryBackoff.NO_RETRY, backoff.nextDelay());
+        backoff.reset();
+        assertEquals(0, backoff.getAttempts());
+        assertTrue(backoff.nextDelay() > 0);
+    }
+
+    @Test
+    public void zeroAttemptsNeverRetries() {
+        assertEquals(RetryBackoff.NO_RETRY, new RetryBackoff().setMaxAttempts(0).nextDelay());
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.simulation;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.loadmore.EndlessRecyclerAdapter;
+import com.loadmore.EndlessRecyclerView;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scroll and load session over a real {@link EndlessRecyclerView} laid out in a Robolectric
+ * activity. Drags are sent as touch events and flings go through {@link RecyclerView#fling},
+ * every frame advances the main looper so layout passes, fling animation, the posted viewport
+ * fill check and the view's own scroll listener run as on a device. The load trigger is the
+ * view's, this class only answers {@link EndlessRecyclerView.OnLoadMoreListener} with pages
+ * arriving after a fixed latency and calls {@link EndlessRecyclerView#setLoading} like an app.
+ * Notifications are counted by an observer registered on the wrapper.
+ */
+public class LoadSimulation {
+    static final int FRAME_MS = 16;
+    // a fling that has not settled by then is reported as is
+    static final int MAX_FLING_FRAMES = 600;
+
+    private final Scenario mScenario;
+    private final SimulationResult mResult = new SimulationResult();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ItemsAdapter mItems;
+    private final CountingObserver mObserver = new CountingObserver();
+    private final EndlessRecyclerView mView;
+    private final EndlessRecyclerAdapter mAdapter;
+    private final List<Integer> mLoadStarts = new ArrayList<>();
+
+    private boolean mPending;
+    private boolean mDone;
+    private int mScrollState = RecyclerView.SCROLL_STATE_IDLE;
+    private int mMaxSeenItem = -1;
+
+    LoadSimulation(final Scenario scenario, final boolean predictive) {
+        mScenario = scenario;
+        mItems = new ItemsAdapter(scenario.itemExtent);
+        // one fling and traversal step per advanced frame instead of running them to the end at once
+        ShadowChoreographer.setPostCallbackDelay(FRAME_MS);
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mView = new EndlessRecyclerView(activity);
+        if (scenario.spanCount > 1) {
+            mView.setLayoutManager(new GridLayoutManager(activity, scenario.spanCount));
+        }
+        mView.setPredictiveLoad(predictive);
+        mView.setAdapter(mItems);
+        mAdapter = mView.getAdapter();
+        mAdapter.registerAdapterDataObserver(mObserver);
+        mView.setOnLoadMoreListener(new EndlessRecyclerView.OnLoadMoreListener() {
+            @Override
+            public void onLoadMore(final EndlessRecyclerView view) {
+                requestPage();
+            }
+        });
+        mView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull final RecyclerView recyclerView, final int newState) {
+                mScrollState = newState;
+            }
+        });
+        final FrameLayout root = new FrameLayout(activity);
+        root.addView(mView, new FrameLayout.LayoutParams(scenario.width, scenario.viewport));
+        activity.setContentView(root);
+    }
+
+    SimulationResult run() {
+        // first page, loaded by the app before the view can trigger anything
+        requestPage();
+        for (Scenario.Segment segment : mScenario.segments) {
+            switch (segment.type) {
+                case Scenario.Segment.DRAG:
+                    drag(segment.velocity, segment.frames);
+                    break;
+                case Scenario.Segment.FLING:
+                    fling(segment.velocity);
+                    break;
+                case Scenario.Segment.IDLE:
+                default:
+                    for (int i = 0; i < segment.frames; i++) {
+                        frame();
+                    }
+                    break;
+            }
+        }
+        // let a load still in flight finish
+        while (mPending) {
+            frame();
+        }
+        for (int start : mLoadStarts) {
+            if (start > mMaxSeenItem) {
+                mResult.redundantLoads++;
+            }
+        }
+        mResult.stallMs = (int) mView.getLoadMetrics().getStallDuration().getSum();
+        mResult.dataSetChangedCount = mAdapter.getDataSetChangedCount();
+        mResult.itemNotifications = mObserver.mItemNotifications;
+        if (mObserver.mDataSetChanged != mResult.dataSetChangedCount) {
+            throw new IllegalStateException("notifyDataSetChanged sent " + mObserver.mDataSetChanged
+                    + " times, adapter counted " + mResult.dataSetChangedCount);
+        }
+        return mResult;
+    }
+
+    /**
+     * Finger moving up by the given distance per frame, then lifted without velocity
+     */
+    private void drag(final int pxPerFrame, final int frames) {
+        final long downTime = SystemClock.uptimeMillis();
+        final float x = mScenario.width / 2f;
+        float y = mScenario.viewport - 1;
+        touch(downTime, MotionEvent.ACTION_DOWN, x, y);
+        for (int i = 0; i < frames; i++) {
+            frame();
+            y -= pxPerFrame;
+            touch(downTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+        // cancel rather than up, the release must not turn into a fling
+        touch(downTime, MotionEvent.ACTION_CANCEL, x, y);
+        frame();
+    }
+
+    private void fling(final int pxPerFrame) {
+        if (!mView.fling(0, pxPerFrame * 1000 / FRAME_MS)) {
+            frame();
+            return;
+        }
+        for (int i = 0; i < MAX_FLING_FRAMES && mScrollState != RecyclerView.SCROLL_STATE_IDLE; i++) {
+            frame();
+        }
+    }
+
+    private void touch(final long downTime, final int action, final float x, final float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        mView.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private void frame() {
+        ShadowLooper.idleMainLooper(FRAME_MS, TimeUnit.MILLISECONDS);
+        if (mView.isLayoutRequested()) {
+            // a frame always ends laid out, as the traversal would leave it
+            mView.measure(View.MeasureSpec.makeMeasureSpec(mScenario.width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(mScenario.viewport, View.MeasureSpec.EXACTLY));
+            mView.layout(mView.getLeft(), mView.getTop(), mView.getLeft() + mScenario.width,
+                    mView.getTop() + mScenario.viewport);
+        }
+        final int last = ((LinearLayoutManager) mView.getLayoutManager()).findLastVisibleItemPosition();
+        if (last == RecyclerView.NO_POSITION) {
+            return;
+        }
+        mMaxSeenItem = Math.max(mMaxSeenItem, Math.min(mItems.getItemCount() - 1, last - mAdapter.getHeaderCount()));
+        if (mPending && mAdapter.isFooterPosition(last)) {
+            mResult.footerVisibleFrames++;
+        }
+    }
+
+    private void requestPage() {
+        if (mPending) {
+            mResult.overlappingLoads++;
+            return;
+        }
+        if (mDone) {
+            return;
+        }
+        mPending = true;
+        mLoadStarts.add(mItems.getItemCount());
+        mResult.loadsIssued++;
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                deliver();
+            }
+        }, mScenario.latencyMs);
+    }
+
+    private void deliver() {
+        mPending = false;
+        mItems.addPage(mScenario.pageSize);
+        mDone = mLoadStarts.size() >= mScenario.totalPages;
+        mView.setLoading(mDone ? EndlessRecyclerView.ScrollType.DONE : EndlessRecyclerView.ScrollType.IN_PROGRESS);
+    }
+
+    static List<Scenario> scenarios() {
+        final List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("longFeed")
+                .pages(20, 30)
+                .latency(400)
+                .drag(40, 60).fling(120).idle(30)
+                .drag(60, 90).fling(200).idle(20)
+                .fling(250).idle(60)
+                .drag(30, 120).fling(180).idle(40));
+        scenarios.add(new Scenario("grid")
+                .itemExtent(240)
+                .spanCount(3)
+                .pages(30, 15)
+                .latency(300)
+                .drag(50, 40).fling(150).idle(30)
+                .fling(220).idle(30)
+                .drag(40, 80).fling(200).idle(60));
+        scenarios.add(new Scenario("tabletFirstPage")
+                .itemExtent(100)
+                .pages(8, 10)
+                .latency(200)
+                .idle(120)
+                .drag(20, 60).idle(60));
+        scenarios.add(new Scenario("fastPages")
+                .pages(10, 40)
+                .latency(32)
+                .fling(300).idle(5).fling(300).idle(5).fling(300).idle(5)
+                .fling(300).idle(5).fling(300).idle(5).fling(300).idle(30));
+        return scenarios;
+    }
+
+    static Map<String, Integer> runAll() {
+        final Map<String, Integer> metrics = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios()) {
+            for (boolean predictive : new boolean[]{false, true}) {
+                final String prefix = scenario.name + "." + (predictive ? "predictive" : "threshold") + ".";
+                final SimulationResult result = new LoadSimulation(scenario, predictive).run();
+                for (Map.Entry<String, Integer> entry : result.toMap().entrySet()) {
+                    metrics.put(prefix + entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Wrapped adapter growing by one page at a time, notified like an app appending a page
+     */
+    private static class ItemsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int mItemExtent;
+        private int mCount;
+
+        ItemsAdapter(final int itemExtent) {
+            mItemExtent = itemExtent;
+        }
+
+        void addPage(final int pageSize) {
+            final int start = mCount;
+            mCount += pageSize;
+            notifyItemRangeInserted(start, pageSize);
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull final ViewGroup parent, final int viewType) {
+            final View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, mItemExtent));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull final RecyclerView.ViewHolder holder, final int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return mCount;
+        }
+    }
+
+    /**
+     * Counts what the wrapper sends to RecyclerView
+     */
+    private static class CountingObserver extends RecyclerView.AdapterDataObserver {
+        int mDataSetChanged;
+        int mItemNotifications;
+
+        @Override
+        public void onChanged() {
+            mDataSetChanged++;
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount) {
+            mItemNotifications++;
+        }
+
+        @Override
+        public void onItemRangeInserted(final int positionStart, final int itemCount) {
+            mItemNotifications++;
+        }
+
+        @Override
+        public void onItemRangeRemoved(final int positionStart, final int itemCount) {
+            mItemNotifications++;
+        }
+
+        @Override
+        public void onItemRangeMoved(final int fromPosition, final int toPosition, final int itemCount) {
+            mItemNotifications++;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.simulation;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every scenario and compares each metric with simulation-baseline.properties. A metric
+ * above its baseline value, a metric without a baseline and a baseline key no metric reports
+ * all fail the test. Regenerate the baseline with
+ * ./gradlew :loadmore:testDebugUnitTest -PwriteSimulationBaseline
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.LEGACY)
+public class LoadSimulationTest {
+
+    @Test
+    public void metricsWithinBaseline() throws IOException {
+        final File baselineFile = new File(System.getProperty("simulation.baseline", "simulation-baseline.properties"));
+        final Map<String, Integer> metrics = LoadSimulation.runAll();
+        if (Boolean.getBoolean("simulation.writeBaseline")) {
+            writeBaseline(metrics, baselineFile);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+        final Properties baseline = new Properties();
+        final InputStream in = new FileInputStream(baselineFile);
+        try {
+            baseline.load(in);
+        } finally {
+            in.close();
+        }
+        final StringBuilder failures = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : metrics.entrySet()) {
+            final String expected = baseline.getProperty(entry.getKey());
+            String status = "";
+            if (expected == null) {
+                status = "  MISSING from baseline";
+                failures.append('\n').append(entry.getKey()).append(status);
+            } else if (entry.getValue() > Integer.parseInt(expected)) {
+                status = "  REGRESSION, baseline " + expected;
+                failures.append('\n').append(entry.getKey()).append('=').append(entry.getValue()).append(status);
+            } else if (entry.getValue() < Integer.parseInt(expected)) {
+                status = "  improved, baseline " + expected;
+            }
+            System.out.println(entry.getKey() + "=" + entry.getValue() + status);
+        }
+        for (String key : baseline.stringPropertyNames()) {
+            if (!metrics.containsKey(key)) {
+                failures.append('\n').append(key).append("  in baseline but not reported");
+            }
+        }
+        assertTrue("baseline check failed, regenerate with -PwriteSimulationBaseline if intended:" + failures,
+                failures.length() == 0);
+    }
+
+    private static void writeBaseline(final Map<String, Integer> metrics, final File file) throws IOException {
+        final StringBuilder builder = new StringBuilder("# Regenerate with ./gradlew :loadmore:testDebugUnitTest -PwriteSimulationBaseline\n");
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(metrics).entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(builder.toString().getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted scroll session over a list fed by a fake page source.
+ */
+public class Scenario {
+    final String name;
+    int itemExtent = 120;
+    int width = 1080;
+    int viewport = 1920;
+    int spanCount = 1;
+    int pageSize = 20;
+    int totalPages = 20;
+    int latencyMs = 300;
+    final List<Segment> segments = new ArrayList<>();
+
+    public Scenario(final String name) {
+        this.name = name;
+    }
+
+    public Scenario itemExtent(final int px) {
+        this.itemExtent = px;
+        return this;
+    }
+
+    public Scenario spanCount(final int spans) {
+        this.spanCount = spans;
+        return this;
+    }
+
+    public Scenario pages(final int pageSize, final int totalPages) {
+        this.pageSize = pageSize;
+        this.totalPages = totalPages;
+        return this;
+    }
+
+    public Scenario latency(final int ms) {
+        this.latencyMs = ms;
+        return this;
+    }
+
+    /**
+     * Finger drag at a constant speed, released without a fling
+     */
+    public Scenario drag(final int pxPerFrame, final int frames) {
+        segments.add(new Segment(Segment.DRAG, pxPerFrame, frames));
+        return this;
+    }
+
+    /**
+     * Fling started at the given speed, run by the view until it stops
+     */
+    public Scenario fling(final int pxPerFrame) {
+        segments.add(new Segment(Segment.FLING, pxPerFrame, 0));
+        return this;
+    }
+
+    public Scenario idle(final int frames) {
+        segments.add(new Segment(Segment.IDLE, 0, frames));
+        return this;
+    }
+
+    /**
+     * Part of the scroll script, each segment boundary is a scroll state change
+     */
+    static class Segment {
+        static final int DRAG = 0;
+        static final int FLING = 1;
+        static final int IDLE = 2;
+
+        final int type;
+        final int velocity;
+        final int frames;
+
+        Segment(final int type, final int velocity, final int frames) {
+            this.type = type;
+            this.velocity = velocity;
+            this.frames = frames;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2013 - 2016 Xiaoke Zhang
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.loadmore.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters collected by one simulated run.
+ */
+public class SimulationResult {
+    int loadsIssued;
+    // onLoadMore while the previous page was still loading, the view must never do this
+    int overlappingLoads;
+    int redundantLoads;
+    int footerVisibleFrames;
+    // stall time measured by the view's LoadMetrics
+    int stallMs;
+    // read from the adapter and the observer registered on it
+    int dataSetChangedCount;
+    int itemNotifications;
+
+    Map<String, Integer> toMap() {
+        final Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("loadsIssued", loadsIssued);
+        map.put("overlappingLoads", overlappingLoads);
+        map.put("redundantLoads", redundantLoads);
+        map.put("footerVisibleFrames", footerVisibleFrames);
+        map.put("stallMs", stallMs);
+        map.put("dataSetChanged", dataSetChangedCount);
+        map.put("itemNotifications", itemNotifications);
+        return map;
+    }
+}